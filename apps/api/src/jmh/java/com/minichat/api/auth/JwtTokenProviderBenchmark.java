@@ -0,0 +1,31 @@
+package com.minichat.api.auth;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenProvider = new JwtTokenProvider("benchmark_secret_benchmark_secret_benchmark_secret", 3600);
+        token = tokenProvider.generateAccessToken(UUID.randomUUID(), "bench@example.com");
+    }
+
+    @Benchmark
+    public JwtUserPrincipal parse() {
+        return tokenProvider.parse(token);
+    }
+}
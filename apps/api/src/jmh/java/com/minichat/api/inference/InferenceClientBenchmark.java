@@ -0,0 +1,46 @@
+package com.minichat.api.inference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InferenceClientBenchmark {
+
+    @Param({"16", "512"})
+    private int deltas;
+
+    private InferenceClient client;
+    private byte[] stream;
+
+    @Setup
+    public void setup() {
+        client = new InferenceClient(new ObjectMapper(), "http://localhost:8000", 1000);
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < deltas; i++) {
+            sb.append("data: {\"type\":\"delta\",\"delta\":\"token").append(i).append(" \"}\n\n");
+        }
+        sb.append("data: {\"type\":\"usage\",\"inputTokens\":120,\"outputTokens\":").append(deltas).append("}\n\n");
+        sb.append("data: {\"type\":\"done\"}\n\n");
+        stream = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void readEvents(Blackhole blackhole) throws IOException {
+        client.readEvents(new ByteArrayInputStream(stream), blackhole::consume);
+    }
+}
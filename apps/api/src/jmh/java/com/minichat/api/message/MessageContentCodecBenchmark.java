@@ -0,0 +1,53 @@
+package com.minichat.api.message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageContentCodecBenchmark {
+
+    @Param({"8192", "65536"})
+    private int contentBytes;
+
+    private MessageContentCodec codec;
+    private String content;
+    private byte[] packed;
+
+    @Setup
+    public void setup() {
+        codec = new MessageContentCodec(true, 4096);
+
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (sb.length() < contentBytes) {
+            sb.append("## Step ").append(i++).append("\n\nHere is how to configure the client:\n\n```java\n")
+                .append("HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(")
+                .append(i % 30).append(")).build();\n```\n\nThen call `send` with a request built from the URI.\n\n");
+        }
+        content = sb.substring(0, contentBytes);
+        packed = codec.pack(content);
+
+        int raw = content.getBytes(StandardCharsets.UTF_8).length;
+        System.out.printf("%nraw=%d packed=%d ratio=%.2f%n", raw, packed.length, (double) packed.length / raw);
+    }
+
+    @Benchmark
+    public byte[] pack() {
+        return codec.pack(content);
+    }
+
+    @Benchmark
+    public String unpack() {
+        return codec.unpack(packed);
+    }
+}
@@ -0,0 +1,63 @@
+package com.minichat.api.message;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.minichat.api.inference.InferenceClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageDtoBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private List<MessageEntity> entities;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        entities = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            MessageEntity entity = new MessageEntity();
+            entity.setChatId(UUID.randomUUID());
+            entity.setRole(i % 2 == 0 ? "user" : "assistant");
+            entity.setContent("Message body " + i + " with some markdown `code` and text. ".repeat(8));
+            entity.prePersist();
+            entities.add(entity);
+        }
+    }
+
+    @Benchmark
+    public String encodeMessagePage() throws Exception {
+        List<MessageDtos.MessageResponse> items = new ArrayList<>(entities.size());
+        for (MessageEntity entity : entities) {
+            items.add(new MessageDtos.MessageResponse(entity.getId(), entity.getParentId(), entity.getRole(), entity.getContent(),
+                entity.getCreatedAt()));
+        }
+        return objectMapper.writeValueAsString(new MessageDtos.MessagePageResponse(items, null));
+    }
+
+    @Benchmark
+    public String encodeInferencePayload() throws Exception {
+        List<InferenceClient.GenerateMessage> messages = new ArrayList<>(entities.size());
+        for (MessageEntity entity : entities) {
+            messages.add(new InferenceClient.GenerateMessage(entity.getRole(), entity.getContent()));
+        }
+        return objectMapper.writeValueAsString(new InferenceClient.GenerateRequest(
+            UUID.randomUUID().toString(), "gpt-4o-mini", null, 0.7, 512, messages));
+    }
+}
@@ -0,0 +1,69 @@
+package com.minichat.api.transfer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChatNdjsonWriterBenchmark {
+
+    @Param({"1000000"})
+    private int messages;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID chatId = UUID.randomUUID();
+    private final String content = "Synthetic assistant reply with `code` and **markdown**. ".repeat(10);
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Written {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Benchmark
+    public void exportChat(Written written) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        Instant createdAt = Instant.parse("2026-01-01T00:00:00Z");
+        try (ChatNdjsonWriter writer = new ChatNdjsonWriter(objectMapper, out)) {
+            writer.writeChat(chatId, "Benchmark chat", chatId, createdAt);
+            for (int i = 0; i < messages; i++) {
+                writer.writeMessage(chatId, chatId, i % 2 == 0 ? "user" : "assistant", content, createdAt.plusMillis(i));
+            }
+        }
+        written.bytes += out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
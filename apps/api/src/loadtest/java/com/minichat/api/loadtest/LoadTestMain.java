@@ -0,0 +1,185 @@
+package com.minichat.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minichat.api.ApiApplication;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+public final class LoadTestMain {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    private final ConcurrentLinkedQueue<Long> createLatencies = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> firstTokenLatencies = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> streamLatencies = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final AtomicInteger maxActiveStreams = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private final String baseUrl;
+
+    private LoadTestMain(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int streams = Integer.getInteger("loadtest.streams", 50);
+        int generationsPerStream = Integer.getInteger("loadtest.generations", 5);
+        int tokens = Integer.getInteger("loadtest.tokens", 200);
+        int tokensPerSecond = Integer.getInteger("loadtest.tokensPerSecond", 100);
+        String targetUrl = System.getProperty("loadtest.baseUrl");
+
+        try (StubInferenceServer stub = new StubInferenceServer(Integer.getInteger("loadtest.stubPort", 0), tokens, tokensPerSecond)) {
+            ConfigurableApplicationContext context = null;
+            if (targetUrl == null || targetUrl.isBlank()) {
+                context = SpringApplication.run(ApiApplication.class,
+                    "--server.port=0",
+                    "--app.inference.base-url=" + stub.baseUrl(),
+                    "--app.limits.qps=1000000");
+                targetUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+            } else {
+                System.out.println("Point the target API at the stub with INFERENCE_BASE_URL=" + stub.baseUrl());
+            }
+
+            try {
+                new LoadTestMain(targetUrl).run(streams, generationsPerStream);
+            } finally {
+                if (context != null) {
+                    context.close();
+                }
+            }
+        }
+    }
+
+    private void run(int streams, int generationsPerStream) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(streams);
+        long startedAt = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(streams);
+            for (int i = 0; i < streams; i++) {
+                futures.add(workers.submit(() -> {
+                    runWorker(generationsPerStream);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+
+        System.out.printf("streams=%d generations=%d failures=%d elapsed=%dms%n",
+            streams, streamLatencies.size(), failures.get(), elapsedMs);
+        report("create", createLatencies);
+        report("ttft", firstTokenLatencies);
+        report("stream", streamLatencies);
+        System.out.printf("max concurrent streams=%d%n", maxActiveStreams.get());
+    }
+
+    private void runWorker(int generations) throws Exception {
+        String email = "load-" + UUID.randomUUID() + "@example.com";
+        JsonNode token = post("/api/auth/register", null, Map.of("email", email, "password", "load-test-password"));
+        String accessToken = token.path("accessToken").asText();
+        String chatId = post("/api/chats", accessToken, Map.of("title", "load test")).path("id").asText();
+
+        for (int i = 0; i < generations; i++) {
+            try {
+                long createStart = System.nanoTime();
+                String generationId = post("/api/chats/" + chatId + "/generations", accessToken,
+                    Map.of("userMessage", "hello " + i, "requestId", UUID.randomUUID().toString()))
+                    .path("generationId").asText();
+                createLatencies.add(System.nanoTime() - createStart);
+                stream(accessToken, generationId);
+            } catch (Exception ex) {
+                failures.incrementAndGet();
+            }
+        }
+    }
+
+    private void stream(String accessToken, String generationId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/generations/" + generationId + "/stream"))
+            .header("Authorization", "Bearer " + accessToken)
+            .header("Accept", "text/event-stream")
+            .GET()
+            .build();
+
+        long start = System.nanoTime();
+        int active = activeStreams.incrementAndGet();
+        maxActiveStreams.accumulateAndGet(active, Math::max);
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() >= 400) {
+                throw new IllegalStateException("stream failed with status " + response.statusCode());
+            }
+            boolean firstToken = true;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (firstToken && line.startsWith("data:") && line.contains("\"delta\"")) {
+                        firstTokenLatencies.add(System.nanoTime() - start);
+                        firstToken = false;
+                    }
+                }
+            }
+            streamLatencies.add(System.nanoTime() - start);
+        } finally {
+            activeStreams.decrementAndGet();
+        }
+    }
+
+    private JsonNode post(String path, String accessToken, Object body) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (accessToken != null) {
+            builder.header("Authorization", "Bearer " + accessToken);
+        }
+        HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(path + " failed with status " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private void report(String name, Collection<Long> samples) {
+        List<Long> sorted = new ArrayList<>(samples);
+        if (sorted.isEmpty()) {
+            System.out.printf("%s: no samples%n", name);
+            return;
+        }
+        sorted.sort(null);
+        System.out.printf("%s: n=%d p50=%.1fms p99=%.1fms max=%.1fms%n", name, sorted.size(),
+            percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.get(sorted.size() - 1) / 1_000_000.0);
+    }
+
+    private double percentile(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,124 @@
+package com.minichat.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.minichat.api.generation.SseDeltaCoalescer;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Drives many concurrent token streams through SseDeltaCoalescer into /dev/null. Each SSE send is followed by
+// a flush, the same as a servlet response, so a flush is one write(2) on the shared descriptor.
+public final class SseCoalescingBenchmark {
+
+    private SseCoalescingBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int streams = Integer.getInteger("loadtest.streams", 10_000);
+        int tokensPerSecond = Integer.getInteger("loadtest.tokensPerSecond", 100);
+        int seconds = Integer.getInteger("loadtest.seconds", 10);
+        int producers = Integer.getInteger("loadtest.producers", Runtime.getRuntime().availableProcessors());
+        long coalesceMs = Long.getLong("loadtest.coalesceMs", 25);
+        int maxChars = Integer.getInteger("loadtest.maxChars", 1024);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        String token = " token";
+        try (FileOutputStream devNull = new FileOutputStream("/dev/null")) {
+            run("direct", streams, tokensPerSecond, seconds, producers, 0, maxChars, objectMapper, token, devNull);
+            run("coalesced " + coalesceMs + "ms", streams, tokensPerSecond, seconds, producers, coalesceMs, maxChars,
+                objectMapper, token, devNull);
+        }
+    }
+
+    private static void run(String label,
+                            int streams,
+                            int tokensPerSecond,
+                            int seconds,
+                            int producers,
+                            long coalesceMs,
+                            int maxChars,
+                            ObjectMapper objectMapper,
+                            String token,
+                            OutputStream devNull) throws Exception {
+        LongAdder sends = new LongAdder();
+        LongAdder tokens = new LongAdder();
+        ScheduledThreadPoolExecutor flushScheduler = new ScheduledThreadPoolExecutor(2);
+        flushScheduler.setRemoveOnCancelPolicy(true);
+
+        List<SseDeltaCoalescer> coalescers = new ArrayList<>(streams);
+        for (int i = 0; i < streams; i++) {
+            OutputStream response = new BufferedOutputStream(devNull, 8192);
+            coalescers.add(new SseDeltaCoalescer(new SseDeltaCoalescer.Sink() {
+                @Override
+                public void delta(String text) throws IOException {
+                    ObjectNode event = objectMapper.createObjectNode();
+                    event.put("type", "delta");
+                    event.put("delta", text);
+                    write(event);
+                }
+
+                @Override
+                public void event(JsonNode event) throws IOException {
+                    write(event);
+                }
+
+                private void write(JsonNode event) throws IOException {
+                    byte[] frame = ("data:" + event + "\n\n").getBytes(StandardCharsets.UTF_8);
+                    synchronized (response) {
+                        response.write(frame);
+                        response.flush();
+                    }
+                    sends.increment();
+                }
+            }, flushScheduler, coalesceMs, maxChars));
+        }
+
+        ScheduledExecutorService producerPool = Executors.newScheduledThreadPool(producers);
+        long periodMicros = 1_000_000L / tokensPerSecond;
+        int perProducer = (streams + producers - 1) / producers;
+        long cpuBefore = processCpuNanos();
+        long startedAt = System.nanoTime();
+        for (int p = 0; p < producers; p++) {
+            List<SseDeltaCoalescer> slice = coalescers.subList(Math.min(streams, p * perProducer), Math.min(streams, (p + 1) * perProducer));
+            producerPool.scheduleAtFixedRate(() -> {
+                for (SseDeltaCoalescer coalescer : slice) {
+                    try {
+                        coalescer.delta(token);
+                        tokens.increment();
+                    } catch (IOException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            }, 0, periodMicros, TimeUnit.MICROSECONDS);
+        }
+
+        Thread.sleep(seconds * 1000L);
+        producerPool.shutdownNow();
+        producerPool.awaitTermination(10, TimeUnit.SECONDS);
+        coalescers.forEach(SseDeltaCoalescer::close);
+        flushScheduler.shutdown();
+        flushScheduler.awaitTermination(10, TimeUnit.SECONDS);
+
+        double elapsed = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        double cpu = (processCpuNanos() - cpuBefore) / 1_000_000_000.0;
+        System.out.printf("%s: %d streams, %.0f tokens/s, %.0f writes/s, %.1f tokens/write, cpu %.1fs (%.2f cores, %.0f ns/token)%n",
+            label, streams, tokens.sum() / elapsed, sends.sum() / elapsed, (double) tokens.sum() / Math.max(1, sends.sum()),
+            cpu, cpu / elapsed, cpu * 1_000_000_000.0 / Math.max(1, tokens.sum()));
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+}
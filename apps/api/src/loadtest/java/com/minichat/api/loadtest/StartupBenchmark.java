@@ -0,0 +1,127 @@
+package com.minichat.api.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Starts the API repeatedly in each mode and measures wall time from process start to the first 200 from /healthz,
+// plus resident memory at that moment. Needs Postgres, Redis and RabbitMQ reachable with the usual env vars.
+// Modes whose command is blank are skipped; build them first with `gradle -Paot cdsArchive` and
+// `gradle -Pnative nativeCompile`.
+public final class StartupBenchmark {
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofMillis(200))
+        .build();
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("loadtest.runs", 5);
+        int port = Integer.getInteger("loadtest.port", 18080);
+        long timeoutMs = Long.getLong("loadtest.timeoutMs", 120_000);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        Map<String, String> modes = new LinkedHashMap<>();
+        modes.put("jvm", System.getProperty("loadtest.jvm", java + " -jar build/libs/minichat-api-0.1.0.jar"));
+        modes.put("aot+cds", System.getProperty("loadtest.aotCds", java
+            + " -XX:SharedArchiveFile=build/cds/app.jsa -Xlog:cds=off -Dspring.aot.enabled=true -jar build/cds/minichat-api-0.1.0.jar"));
+        modes.put("native", System.getProperty("loadtest.native", "build/native/nativeCompile/minichat-api"));
+
+        URI health = URI.create("http://localhost:" + port + "/healthz");
+        for (Map.Entry<String, String> mode : modes.entrySet()) {
+            if (mode.getValue().isBlank()) {
+                continue;
+            }
+            List<String> command = new ArrayList<>(Arrays.asList(mode.getValue().trim().split("\\s+")));
+            command.add("--server.port=" + port);
+            if (command.get(0).contains("/") && !new File(command.get(0)).canExecute()) {
+                System.out.printf("%s: skipped, %s not found%n", mode.getKey(), command.get(0));
+                continue;
+            }
+
+            long[] readyMs = new long[runs];
+            long[] rssKb = new long[runs];
+            try {
+                for (int i = 0; i < runs; i++) {
+                    long[] sample = startOnce(command, health, timeoutMs);
+                    readyMs[i] = sample[0];
+                    rssKb[i] = sample[1];
+                }
+            } catch (IllegalStateException ex) {
+                System.out.printf("%s: failed, %s%n", mode.getKey(), ex.getMessage());
+                continue;
+            }
+            Arrays.sort(readyMs);
+            Arrays.sort(rssKb);
+            System.out.printf("%s: %d runs, ready p50 %d ms (min %d, max %d), rss p50 %.1f MB (min %.1f, max %.1f)%n",
+                mode.getKey(), runs, readyMs[runs / 2], readyMs[0], readyMs[runs - 1],
+                rssKb[runs / 2] / 1024.0, rssKb[0] / 1024.0, rssKb[runs - 1] / 1024.0);
+        }
+    }
+
+    private static long[] startOnce(List<String> command, URI health, long timeoutMs) throws Exception {
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        try {
+            long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Process exited with " + process.exitValue() + ": " + command);
+                }
+                if (healthy(health)) {
+                    long readyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                    return new long[] {readyMs, rssKb(process.pid())};
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("Not healthy after " + timeoutMs + " ms: " + command);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static boolean healthy(URI health) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(health).timeout(Duration.ofMillis(500)).GET().build();
+            return HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException ex) {
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return 0;
+    }
+}
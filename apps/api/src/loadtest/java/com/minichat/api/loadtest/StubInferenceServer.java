@@ -0,0 +1,69 @@
+package com.minichat.api.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class StubInferenceServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int tokensPerGeneration;
+    private final long tokenIntervalNanos;
+
+    public StubInferenceServer(int port, int tokensPerGeneration, int tokensPerSecond) throws IOException {
+        this.tokensPerGeneration = tokensPerGeneration;
+        this.tokenIntervalNanos = tokensPerSecond <= 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / tokensPerSecond;
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.server.createContext("/internal/generate", this::generate);
+        this.server.createContext("/internal/cancel", this::cancel);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void generate(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < tokensPerGeneration; i++) {
+                write(out, "{\"type\":\"delta\",\"delta\":\"tok" + i + " \"}");
+                if (tokenIntervalNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(tokenIntervalNanos);
+                }
+            }
+            write(out, "{\"type\":\"usage\",\"inputTokens\":32,\"outputTokens\":" + tokensPerGeneration + "}");
+            write(out, "{\"type\":\"done\"}");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void cancel(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.sendResponseHeaders(200, -1);
+        exchange.close();
+    }
+
+    private void write(OutputStream out, String json) throws IOException {
+        out.write(("data: " + json + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,88 @@
+package com.minichat.api.loadtest;
+
+import com.minichat.api.common.UuidV7Generator;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+public final class UuidInsertBenchmark {
+
+    private UuidInsertBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("loadtest.jdbcUrl", "jdbc:postgresql://localhost:5432/minichat?reWriteBatchedInserts=true");
+        String user = System.getProperty("loadtest.jdbcUser", "minichat");
+        String password = System.getProperty("loadtest.jdbcPassword", "minichat");
+        int rows = Integer.getInteger("loadtest.rows", 1_000_000);
+        int chats = Integer.getInteger("loadtest.chats", 10_000);
+        int batchSize = Integer.getInteger("loadtest.batchSize", 500);
+
+        List<UUID> chatIds = new ArrayList<>(chats);
+        for (int i = 0; i < chats; i++) {
+            chatIds.add(UUID.randomUUID());
+        }
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            run(connection, "bench_messages_v4", UUID::randomUUID, chatIds, rows, batchSize);
+            run(connection, "bench_messages_v7", UuidV7Generator::next, chatIds, rows, batchSize);
+        }
+    }
+
+    private static void run(Connection connection,
+                            String table,
+                            Supplier<UUID> ids,
+                            List<UUID> chatIds,
+                            int rows,
+                            int batchSize) throws Exception {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + table);
+            ddl.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, chat_id UUID NOT NULL, role VARCHAR(20) NOT NULL, "
+                + "content TEXT NOT NULL, created_at TIMESTAMPTZ NOT NULL)");
+            ddl.execute("CREATE INDEX " + table + "_chat_created ON " + table + "(chat_id, created_at)");
+        }
+
+        connection.setAutoCommit(false);
+        long startedAt = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+            "INSERT INTO " + table + " (id, chat_id, role, content, created_at) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setObject(1, ids.get());
+                insert.setObject(2, chatIds.get(ThreadLocalRandom.current().nextInt(chatIds.size())));
+                insert.setString(3, i % 2 == 0 ? "user" : "assistant");
+                insert.setString(4, "synthetic message body " + i);
+                insert.setTimestamp(5, Timestamp.from(Instant.now()));
+                insert.addBatch();
+                if ((i + 1) % batchSize == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        connection.setAutoCommit(true);
+
+        try (Statement stats = connection.createStatement();
+             ResultSet rs = stats.executeQuery("SELECT pg_relation_size('" + table + "_pkey'), pg_relation_size('"
+                 + table + "_chat_created'), pg_relation_size('" + table + "')")) {
+            rs.next();
+            System.out.printf("%s: %d rows in %.1fs (%.0f rows/s) pkey=%d MB chat_created=%d MB heap=%d MB%n",
+                table, rows, seconds, rows / seconds, rs.getLong(1) >> 20, rs.getLong(2) >> 20, rs.getLong(3) >> 20);
+        }
+
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE " + table);
+        }
+    }
+}
@@ -1,14 +1,28 @@
 package com.minichat.api;
 
 import java.util.Map;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 public class HealthController {
 
+    private final ApplicationAvailability availability;
+
+    public HealthController(ApplicationAvailability availability) {
+        this.availability = availability;
+    }
+
     @GetMapping("/healthz")
-    public Map<String, String> health() {
-        return Map.of("status", "ok", "service", "api");
+    public ResponseEntity<Map<String, String>> health() {
+        // Tomcat accepts connections before application runners (e.g. the JIT warm-up) have finished.
+        if (availability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("status", "starting", "service", "api"));
+        }
+        return ResponseEntity.ok(Map.of("status", "ok", "service", "api"));
     }
 }
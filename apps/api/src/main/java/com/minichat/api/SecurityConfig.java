@@ -14,6 +14,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -24,13 +25,19 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final RestAuthenticationEntryPoint authenticationEntryPoint;
     private final String webOrigin;
+    private final int serverPort;
+    private final int managementPort;
 
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
                           RestAuthenticationEntryPoint authenticationEntryPoint,
-                          @Value("${app.web-origin:http://localhost:3000}") String webOrigin) {
+                          @Value("${app.web-origin:http://localhost:3000}") String webOrigin,
+                          @Value("${server.port:8080}") int serverPort,
+                          @Value("${management.server.port}") int managementPort) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.authenticationEntryPoint = authenticationEntryPoint;
         this.webOrigin = webOrigin;
+        this.serverPort = serverPort;
+        this.managementPort = managementPort;
     }
 
     @Bean
@@ -42,12 +49,19 @@ public class SecurityConfig {
             .exceptionHandling(ex -> ex.authenticationEntryPoint(authenticationEntryPoint))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
-                .requestMatchers("/healthz", "/actuator/health", "/api/auth/register", "/api/auth/login").permitAll()
+                .requestMatchers("/healthz", "/livez", "/readyz", "/api/auth/register", "/api/auth/login").permitAll()
+                .requestMatchers(managementPort()).permitAll()
                 .anyRequest().authenticated())
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
+    // Actuator (metrics included) only listens on the management port, which is meant to stay inside the deployment
+    // network. If it is configured onto the public port, actuator requests need a token like any other.
+    private RequestMatcher managementPort() {
+        return request -> managementPort != serverPort && request.getLocalPort() == managementPort;
+    }
+
     @Bean
     PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -0,0 +1,16 @@
+package com.minichat.api.archive;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ArchivedMessage(
+    UUID id,
+    UUID parentId,
+    String role,
+    String content,
+    Integer tokenCount,
+    String tokenEncoding,
+    Long tokenPrefix,
+    Instant createdAt
+) {
+}
@@ -0,0 +1,12 @@
+package com.minichat.api.archive;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Write-once object storage for archive segments; every read is a byte range, as with object-store range GETs.
+public interface BlobStore {
+
+    void put(String key, Path file) throws IOException;
+
+    byte[] read(String key, long offset, int length) throws IOException;
+}
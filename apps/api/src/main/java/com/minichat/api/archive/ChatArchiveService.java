@@ -0,0 +1,144 @@
+package com.minichat.api.archive;
+
+import com.minichat.api.message.MessageContentCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class ChatArchiveService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+    private final ChatSegmentCodec segmentCodec;
+    private final MessageContentCodec contentCodec;
+    private final Map<UUID, ArchivedChat> cache;
+    private final Timer readTimer;
+    private final Counter thawedChats;
+
+    public ChatArchiveService(JdbcTemplate jdbcTemplate,
+                              BlobStore blobStore,
+                              ChatSegmentCodec segmentCodec,
+                              MessageContentCodec contentCodec,
+                              MeterRegistry registry,
+                              @Value("${app.archive.cache-entries}") int cacheEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blobStore = blobStore;
+        this.segmentCodec = segmentCodec;
+        this.contentCodec = contentCodec;
+        // Paging through an archived chat re-reads the same block; keep the last few decoded chats.
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, ArchivedChat> eldest) {
+                return size() > cacheEntries;
+            }
+        });
+        this.readTimer = Timer.builder("minichat.archive.read")
+            .description("Time to fetch and decode an archived chat from its segment")
+            .register(registry);
+        this.thawedChats = Counter.builder("minichat.archive.thawed.chats").register(registry);
+    }
+
+    public Optional<ArchivedChat> find(UUID chatId) {
+        List<IndexEntry> entries = jdbcTemplate.query("""
+                SELECT a.segment_key, a.segment_offset, a.segment_length, c.active_leaf_id
+                FROM chat_archives a
+                JOIN chats c ON c.id = a.chat_id
+                WHERE a.chat_id = ?
+                """,
+            (rs, rowNum) -> new IndexEntry(rs.getString("segment_key"), rs.getLong("segment_offset"),
+                rs.getInt("segment_length"), rs.getObject("active_leaf_id", UUID.class)),
+            chatId);
+        if (entries.isEmpty()) {
+            return Optional.empty();
+        }
+        IndexEntry entry = entries.get(0);
+        ArchivedChat cached = cache.get(chatId);
+        if (cached != null && cached.segmentKey().equals(entry.segmentKey())) {
+            return Optional.of(cached);
+        }
+        ArchivedChat chat = new ArchivedChat(chatId, entry.activeLeafId(), entry.segmentKey(), read(entry));
+        cache.put(chatId, chat);
+        return Optional.of(chat);
+    }
+
+    // Moves an archived chat back into the hot tables before anything writes to it. Takes the chat row lock that
+    // message appends take, so it runs at most once per archival.
+    @Transactional
+    public boolean thawIfArchived(UUID chatId) {
+        List<UUID> owners = jdbcTemplate.queryForList(
+            "SELECT user_id FROM chats WHERE id = ? AND archived_at IS NOT NULL FOR UPDATE", UUID.class, chatId);
+        if (owners.isEmpty()) {
+            return false;
+        }
+        ArchivedChat chat = find(chatId).orElseThrow(() -> new IllegalStateException("Archive index missing for chat " + chatId));
+
+        List<Object[]> rows = new ArrayList<>(chat.messages().size());
+        for (ArchivedMessage message : chat.messages()) {
+            byte[] packed = contentCodec.pack(message.content());
+            rows.add(new Object[] {message.id(), chatId, owners.get(0), message.parentId(), message.role(),
+                packed == null ? message.content() : null, packed, message.content(), message.tokenCount(),
+                message.tokenEncoding(), message.tokenPrefix(), Timestamp.from(message.createdAt())});
+        }
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO messages (id, chat_id, user_id, parent_id, role, content, content_packed, content_tsv,
+                                  token_count, token_encoding, token_prefix, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, to_tsvector('simple', ?), ?, ?, ?, ?)
+            """, rows);
+        // The block stays in its segment: segments are append-only and never rewritten.
+        jdbcTemplate.update("DELETE FROM chat_archives WHERE chat_id = ?", chatId);
+        jdbcTemplate.update("UPDATE chats SET archived_at = NULL WHERE id = ?", chatId);
+        cache.remove(chatId);
+        thawedChats.increment();
+        return true;
+    }
+
+    private List<ArchivedMessage> read(IndexEntry entry) {
+        long startedAt = System.nanoTime();
+        try {
+            return segmentCodec.decode(blobStore.read(entry.segmentKey(), entry.offset(), entry.length()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read archive segment " + entry.segmentKey(), ex);
+        } finally {
+            readTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public record ArchivedChat(UUID chatId, UUID activeLeafId, String segmentKey, List<ArchivedMessage> messages) {
+
+        // Parent chain from the active leaf, root first; the in-memory equivalent of MessageRepository.findPath.
+        public List<ArchivedMessage> activePath() {
+            Map<UUID, ArchivedMessage> byId = new HashMap<>(messages.size() * 2);
+            for (ArchivedMessage message : messages) {
+                byId.put(message.id(), message);
+            }
+            List<ArchivedMessage> path = new ArrayList<>();
+            ArchivedMessage current = activeLeafId == null ? null : byId.get(activeLeafId);
+            while (current != null) {
+                path.add(current);
+                current = current.parentId() == null ? null : byId.get(current.parentId());
+            }
+            Collections.reverse(path);
+            return path;
+        }
+    }
+
+    private record IndexEntry(String segmentKey, long offset, int length, UUID activeLeafId) {
+    }
+}
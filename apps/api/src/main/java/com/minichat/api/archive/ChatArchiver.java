@@ -0,0 +1,184 @@
+package com.minichat.api.archive;
+
+import com.minichat.api.common.UuidV7Generator;
+import com.minichat.api.message.MessageContentCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class ChatArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatArchiver.class);
+    private static final DateTimeFormatter SEGMENT_DAY = DateTimeFormatter.ofPattern("yyyy/MM/dd").withZone(ZoneOffset.UTC);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlobStore blobStore;
+    private final ChatSegmentCodec segmentCodec;
+    private final MessageContentCodec contentCodec;
+    private final boolean enabled;
+    private final long idleSeconds;
+    private final int chatsPerRun;
+    private final long maxSegmentBytes;
+    private final Counter archivedChats;
+    private final Counter archivedMessages;
+    private final Counter segmentBytes;
+
+    public ChatArchiver(JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        BlobStore blobStore,
+                        ChatSegmentCodec segmentCodec,
+                        MessageContentCodec contentCodec,
+                        MeterRegistry registry,
+                        @Value("${app.archive.enabled}") boolean enabled,
+                        @Value("${app.archive.idle-seconds}") long idleSeconds,
+                        @Value("${app.archive.chats-per-run}") int chatsPerRun,
+                        @Value("${app.archive.max-segment-bytes}") long maxSegmentBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.blobStore = blobStore;
+        this.segmentCodec = segmentCodec;
+        this.contentCodec = contentCodec;
+        this.enabled = enabled;
+        this.idleSeconds = idleSeconds;
+        this.chatsPerRun = chatsPerRun;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.archivedChats = Counter.builder("minichat.archive.chats").register(registry);
+        this.archivedMessages = Counter.builder("minichat.archive.messages").register(registry);
+        this.segmentBytes = Counter.builder("minichat.archive.segment.bytes").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms}", initialDelayString = "${app.archive.interval-ms}")
+    public void archiveBatch() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive();
+        } catch (Exception ex) {
+            log.warn("Chat archival run failed: {}", ex.getMessage());
+        }
+    }
+
+    private void archive() throws IOException {
+        List<Candidate> candidates = jdbcTemplate.query("""
+                SELECT c.id, c.updated_at
+                FROM chats c
+                WHERE c.archived_at IS NULL
+                  AND c.deleted_at IS NULL
+                  AND c.updated_at < ?
+                  AND NOT EXISTS (
+                      SELECT 1 FROM generations g
+                      WHERE g.chat_id = c.id
+                        AND g.status IN ('queued', 'streaming')
+                  )
+                ORDER BY c.updated_at ASC
+                LIMIT ?
+                """,
+            (rs, rowNum) -> new Candidate(rs.getObject("id", UUID.class), rs.getTimestamp("updated_at")),
+            Timestamp.from(Instant.now().minusSeconds(idleSeconds)), chatsPerRun);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // One segment per run: blocks are appended to a local file, which is uploaded once and never modified.
+        Path file = Files.createTempFile("minichat-segment-", ".seg");
+        try {
+            List<Block> blocks = new ArrayList<>(candidates.size());
+            long offset = 0;
+            try (OutputStream out = Files.newOutputStream(file)) {
+                for (Candidate candidate : candidates) {
+                    List<ArchivedMessage> messages = loadMessages(candidate.chatId());
+                    if (messages.isEmpty()) {
+                        continue;
+                    }
+                    byte[] block = segmentCodec.encode(messages);
+                    out.write(block);
+                    blocks.add(new Block(candidate, offset, block.length, messages.size()));
+                    offset += block.length;
+                    if (offset >= maxSegmentBytes) {
+                        break;
+                    }
+                }
+            }
+            if (blocks.isEmpty()) {
+                return;
+            }
+
+            String key = "segments/" + SEGMENT_DAY.format(Instant.now()) + "/" + UuidV7Generator.next() + ".seg";
+            blobStore.put(key, file);
+            segmentBytes.increment(offset);
+            for (Block block : blocks) {
+                Boolean archived = transactionTemplate.execute(status -> commit(key, block));
+                if (Boolean.TRUE.equals(archived)) {
+                    archivedChats.increment();
+                    archivedMessages.increment(block.messageCount());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Re-checks under the chat row lock that nothing was written since the chat was read; appends move
+    // updated_at under the same lock. A skipped chat leaves an unreferenced block behind in the segment.
+    private boolean commit(String key, Block block) {
+        UUID chatId = block.candidate().chatId();
+        List<Timestamp> current = jdbcTemplate.queryForList(
+            "SELECT updated_at FROM chats WHERE id = ? AND archived_at IS NULL AND deleted_at IS NULL FOR UPDATE",
+            Timestamp.class, chatId);
+        if (current.isEmpty() || !current.get(0).equals(block.candidate().updatedAt())) {
+            return false;
+        }
+        jdbcTemplate.update("""
+            INSERT INTO chat_archives (chat_id, segment_key, segment_offset, segment_length, message_count)
+            VALUES (?, ?, ?, ?, ?)
+            """, chatId, key, block.offset(), block.length(), block.messageCount());
+        jdbcTemplate.update("UPDATE chats SET archived_at = now() WHERE id = ?", chatId);
+        jdbcTemplate.update("DELETE FROM messages WHERE chat_id = ?", chatId);
+        return true;
+    }
+
+    private List<ArchivedMessage> loadMessages(UUID chatId) {
+        return jdbcTemplate.query("""
+                SELECT id, parent_id, role, content, content_packed, token_count, token_encoding, token_prefix, created_at
+                FROM messages
+                WHERE chat_id = ?
+                ORDER BY created_at ASC, id ASC
+                """,
+            (rs, rowNum) -> new ArchivedMessage(
+                rs.getObject("id", UUID.class),
+                rs.getObject("parent_id", UUID.class),
+                rs.getString("role"),
+                contentCodec.read(rs.getString("content"), rs.getBytes("content_packed")),
+                rs.getObject("token_count", Integer.class),
+                rs.getString("token_encoding"),
+                rs.getObject("token_prefix", Long.class),
+                rs.getTimestamp("created_at").toInstant()),
+            chatId);
+    }
+
+    private record Candidate(UUID chatId, Timestamp updatedAt) {
+    }
+
+    private record Block(Candidate candidate, long offset, int length, int messageCount) {
+    }
+}
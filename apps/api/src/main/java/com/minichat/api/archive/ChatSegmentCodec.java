@@ -0,0 +1,151 @@
+package com.minichat.api.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.stereotype.Component;
+
+// One block per archived chat: magic, raw length, CRC32 of the raw bytes, then the LZ4 (high compression) payload.
+// Blocks are self-describing, so a segment is just blocks written back to back.
+@Component
+public class ChatSegmentCodec {
+
+    private static final int MAGIC = 0x4d434131; // "MCA1"
+    private static final int HEADER_BYTES = 12;
+
+    private final LZ4Compressor compressor;
+    private final LZ4SafeDecompressor decompressor;
+
+    public ChatSegmentCodec() {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.highCompressor();
+        this.decompressor = factory.safeDecompressor();
+    }
+
+    public byte[] encode(List<ArchivedMessage> messages) {
+        byte[] raw = serialize(messages);
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+
+        byte[] block = new byte[HEADER_BYTES + compressor.maxCompressedLength(raw.length)];
+        ByteBuffer.wrap(block).putInt(MAGIC).putInt(raw.length).putInt((int) crc.getValue());
+        int compressed = compressor.compress(raw, 0, raw.length, block, HEADER_BYTES);
+        byte[] result = new byte[HEADER_BYTES + compressed];
+        System.arraycopy(block, 0, result, 0, result.length);
+        return result;
+    }
+
+    public List<ArchivedMessage> decode(byte[] block) {
+        if (block.length < HEADER_BYTES) {
+            throw new IllegalStateException("Truncated archive block");
+        }
+        ByteBuffer header = ByteBuffer.wrap(block, 0, HEADER_BYTES);
+        if (header.getInt() != MAGIC) {
+            throw new IllegalStateException("Not an archive block");
+        }
+        int rawLength = header.getInt();
+        if (rawLength < 0) {
+            throw new IllegalStateException("Invalid archive block length " + rawLength);
+        }
+        byte[] raw = new byte[rawLength];
+        int expectedCrc = header.getInt();
+        try {
+            if (decompressor.decompress(block, HEADER_BYTES, block.length - HEADER_BYTES, raw, 0) != rawLength) {
+                throw new IllegalStateException("Truncated archive block");
+            }
+        } catch (LZ4Exception ex) {
+            // A cut-off or corrupted payload; reported like a checksum mismatch rather than as a codec error.
+            throw new IllegalStateException("Corrupt archive block", ex);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(raw);
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IllegalStateException("Archive block checksum mismatch");
+        }
+        return deserialize(raw);
+    }
+
+    private byte[] serialize(List<ArchivedMessage> messages) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(messages.size());
+            for (ArchivedMessage message : messages) {
+                writeUuid(out, message.id());
+                out.writeBoolean(message.parentId() != null);
+                if (message.parentId() != null) {
+                    writeUuid(out, message.parentId());
+                }
+                writeString(out, message.role());
+                writeString(out, message.content());
+                out.writeInt(message.tokenCount() == null ? -1 : message.tokenCount());
+                writeString(out, message.tokenEncoding() == null ? "" : message.tokenEncoding());
+                out.writeLong(message.tokenPrefix() == null ? -1 : message.tokenPrefix());
+                out.writeLong(message.createdAt().getEpochSecond());
+                out.writeInt(message.createdAt().getNano());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<ArchivedMessage> deserialize(byte[] raw) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            int count = in.readInt();
+            List<ArchivedMessage> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                UUID id = readUuid(in);
+                UUID parentId = in.readBoolean() ? readUuid(in) : null;
+                String role = readString(in);
+                String content = readString(in);
+                int tokenCount = in.readInt();
+                String tokenEncoding = readString(in);
+                long tokenPrefix = in.readLong();
+                Instant createdAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                messages.add(new ArchivedMessage(id, parentId, role, content,
+                    tokenCount < 0 ? null : tokenCount,
+                    tokenEncoding.isEmpty() ? null : tokenEncoding,
+                    tokenPrefix < 0 ? null : tokenPrefix,
+                    createdAt));
+            }
+            return messages;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
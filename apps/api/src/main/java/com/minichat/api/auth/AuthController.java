@@ -15,9 +15,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final WebSocketTicketService ticketService;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, WebSocketTicketService ticketService) {
         this.authService = authService;
+        this.ticketService = ticketService;
     }
 
     @PostMapping("/register")
@@ -35,6 +37,11 @@ public class AuthController {
         return new AuthDtos.TokenResponse(authService.refresh(SecurityUtils.currentUser()));
     }
 
+    @PostMapping("/ws-ticket")
+    public AuthDtos.WebSocketTicketResponse webSocketTicket() {
+        return new AuthDtos.WebSocketTicketResponse(ticketService.issue(SecurityUtils.currentUser()), ticketService.ttlSeconds());
+    }
+
     @GetMapping("/me")
     public AuthDtos.MeResponse me() {
         return authService.me(SecurityUtils.currentUserId());
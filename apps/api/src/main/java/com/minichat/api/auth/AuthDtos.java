@@ -24,6 +24,9 @@ public final class AuthDtos {
     public record TokenResponse(String accessToken) {
     }
 
+    public record WebSocketTicketResponse(String ticket, long expiresInSeconds) {
+    }
+
     public record MeResponse(UUID id, String email) {
     }
 }
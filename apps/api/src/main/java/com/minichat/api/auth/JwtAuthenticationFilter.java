@@ -6,6 +6,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import com.minichat.api.config.WebSocketConfig;
 import java.util.List;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -16,28 +17,51 @@ import org.springframework.web.filter.OncePerRequestFilter;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String TICKET_PARAM = "ticket";
+
     private final JwtTokenProvider tokenProvider;
+    private final WebSocketTicketService ticketService;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, WebSocketTicketService ticketService) {
         this.tokenProvider = tokenProvider;
+        this.ticketService = ticketService;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
         throws ServletException, IOException {
+        JwtUserPrincipal principal = resolvePrincipal(request);
+        if (principal != null) {
+            UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(principal, null, List.of());
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private JwtUserPrincipal resolvePrincipal(HttpServletRequest request) {
         String header = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (header != null && header.startsWith("Bearer ")) {
-            String token = header.substring(7);
             try {
-                JwtUserPrincipal principal = tokenProvider.parse(token);
-                UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(principal, null, List.of());
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                return tokenProvider.parse(header.substring(7));
             } catch (JwtException | IllegalArgumentException ignored) {
                 SecurityContextHolder.clearContext();
+                return null;
             }
         }
+        // Browsers cannot set headers on a WebSocket handshake, so the generations upgrade may carry a single-use
+        // ticket from POST /api/auth/ws-ticket instead; no other request is authenticated from the query string.
+        if (isGenerationsUpgrade(request)) {
+            String ticket = request.getParameter(TICKET_PARAM);
+            return ticket == null || ticket.isEmpty() ? null : ticketService.redeem(ticket);
+        }
+        return null;
+    }
 
-        filterChain.doFilter(request, response);
+    private static boolean isGenerationsUpgrade(HttpServletRequest request) {
+        return "GET".equals(request.getMethod())
+            && "websocket".equalsIgnoreCase(request.getHeader(HttpHeaders.UPGRADE))
+            && WebSocketConfig.GENERATIONS_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()));
     }
 }
@@ -0,0 +1,60 @@
+package com.minichat.api.auth;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+// Short-lived, single-use tickets for the WebSocket upgrade, which browsers cannot send an Authorization header
+// with. The ticket goes in the upgrade URL instead of the access token, so a logged URL grants nothing.
+@Component
+public class WebSocketTicketService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketTicketService.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public WebSocketTicketService(StringRedisTemplate redisTemplate,
+                                  @Value("${app.generation.ws.ticket-ttl-seconds}") int ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public long ttlSeconds() {
+        return ttl.toSeconds();
+    }
+
+    public String issue(JwtUserPrincipal principal) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        redisTemplate.opsForValue().set(key(ticket), principal.userId() + "\n" + principal.email(), ttl);
+        return ticket;
+    }
+
+    // GETDEL, so a ticket authenticates at most one upgrade even when two nodes race to redeem it.
+    public JwtUserPrincipal redeem(String ticket) {
+        try {
+            String value = redisTemplate.opsForValue().getAndDelete(key(ticket));
+            if (value == null) {
+                return null;
+            }
+            int separator = value.indexOf('\n');
+            return new JwtUserPrincipal(UUID.fromString(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (Exception ex) {
+            log.warn("Failed to redeem WebSocket ticket: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private String key(String ticket) {
+        return "ws:ticket:" + ticket;
+    }
+}
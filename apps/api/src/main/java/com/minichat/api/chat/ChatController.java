@@ -36,6 +36,11 @@ public class ChatController {
         return chatService.list(SecurityUtils.currentUserId());
     }
 
+    @GetMapping("/{id}/tokens")
+    public ChatDtos.ChatTokensResponse tokens(@PathVariable("id") UUID chatId) {
+        return chatService.tokens(SecurityUtils.currentUserId(), chatId);
+    }
+
     @PatchMapping("/{id}")
     public ChatDtos.ChatResponse rename(@PathVariable("id") UUID chatId,
                                         @Valid @RequestBody ChatDtos.RenameChatRequest request) {
@@ -26,4 +26,12 @@ public final class ChatDtos {
         Instant updatedAt
     ) {
     }
+
+    public record ChatTokensResponse(
+        UUID activeLeafId,
+        long tokens,
+        String encoding,
+        boolean pending
+    ) {
+    }
 }
@@ -1,22 +1,23 @@
 package com.minichat.api.chat;
 
+import com.minichat.api.common.UuidV7;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import java.time.Instant;
 import java.util.UUID;
+import org.hibernate.annotations.SQLRestriction;
 
 @Entity
 @Table(name = "chats")
+@SQLRestriction("deleted_at IS NULL")
 public class ChatEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "user_id", nullable = false)
@@ -31,6 +32,17 @@ public class ChatEntity {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
+    // Moved only through ChatRepository.advanceLeaf so a stale entity save cannot rewind the active branch.
+    @Column(name = "active_leaf_id", insertable = false, updatable = false)
+    private UUID activeLeafId;
+
+    // Set and cleared by the archive package; the entity only reads it.
+    @Column(name = "archived_at", insertable = false, updatable = false)
+    private Instant archivedAt;
+
     @PrePersist
     public void prePersist() {
         Instant now = Instant.now();
@@ -75,6 +87,18 @@ public class ChatEntity {
         return updatedAt;
     }
 
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public UUID getActiveLeafId() {
+        return activeLeafId;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+
     public void touch() {
         this.updatedAt = Instant.now();
     }
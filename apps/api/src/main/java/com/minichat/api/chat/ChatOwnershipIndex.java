@@ -0,0 +1,219 @@
+package com.minichat.api.chat;
+
+import com.minichat.api.common.LongPairHashMap;
+import com.minichat.api.common.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class ChatOwnershipIndex implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "chat:ownership:invalidate";
+
+    private static final Logger log = LoggerFactory.getLogger(ChatOwnershipIndex.class);
+    private static final int EPOCH_STRIPES = 256;
+
+    private final ChatRepository chatRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final int generationEntries;
+    private final long ttlNanos;
+    // Entries are added to current; every TTL, or once current holds half of max-entries, current becomes previous
+    // and the old previous is dropped. An entry is served for one to two TTLs, after which the next request
+    // re-checks the database, so a node that missed a pub/sub invalidation stops serving a deleted chat within
+    // two TTLs, and a full cache drops only its older half.
+    private LongPairHashMap current;
+    private LongPairHashMap previous;
+    private volatile long rotatedAt = System.nanoTime();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Bumped by every eviction of a chat in the stripe. A miss only caches its lookup if the stripe is unchanged,
+    // so an eviction landing between the database check and the insert cannot be undone by it.
+    private final long[] epochs = new long[EPOCH_STRIPES];
+    private final Counter hits;
+    private final Counter misses;
+
+    public ChatOwnershipIndex(ChatRepository chatRepository,
+                              StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              MeterRegistry registry,
+                              @Value("${app.chat.ownership-cache.max-entries}") int maxEntries,
+                              @Value("${app.chat.ownership-cache.ttl-ms}") long ttlMs) {
+        this.chatRepository = chatRepository;
+        this.redisTemplate = redisTemplate;
+        this.generationEntries = Math.max(1, maxEntries / 2);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.current = new LongPairHashMap(Math.min(generationEntries, 1024));
+        this.previous = new LongPairHashMap(Math.min(generationEntries, 1024));
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+
+        Gauge.builder("minichat.chat.ownership.cache.size", this, ChatOwnershipIndex::size)
+            .description("Chats whose owner is cached on this node")
+            .register(registry);
+        this.hits = Counter.builder("minichat.chat.ownership.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("minichat.chat.ownership.cache.requests").tag("result", "miss").register(registry);
+    }
+
+    public void requireOwner(UUID userId, UUID chatId) {
+        if (System.nanoTime() - rotatedAt >= ttlNanos) {
+            expire();
+        }
+
+        boolean cached = false;
+        long ownerHi = 0;
+        long ownerLo = 0;
+        long epoch;
+        lock.readLock().lock();
+        try {
+            epoch = epochs[stripe(chatId)];
+            for (LongPairHashMap owners : List.of(current, previous)) {
+                int slot = owners.indexOf(chatId.getMostSignificantBits(), chatId.getLeastSignificantBits());
+                if (slot >= 0) {
+                    cached = true;
+                    ownerHi = owners.valueHi(slot);
+                    ownerLo = owners.valueLo(slot);
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (cached) {
+            hits.increment();
+            // A chat never changes owner, so a cached mismatch is as good as a failed lookup.
+            if (ownerHi != userId.getMostSignificantBits() || ownerLo != userId.getLeastSignificantBits()) {
+                throw new NotFoundException("Chat not found");
+            }
+            return;
+        }
+
+        misses.increment();
+        if (!chatRepository.existsByIdAndUserId(chatId, userId)) {
+            throw new NotFoundException("Chat not found");
+        }
+        registerUnlessEvicted(chatId, userId, epoch);
+    }
+
+    public void register(UUID chatId, UUID userId) {
+        lock.writeLock().lock();
+        try {
+            put(chatId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void registerUnlessEvicted(UUID chatId, UUID userId, long epoch) {
+        lock.writeLock().lock();
+        try {
+            if (epochs[stripe(chatId)] == epoch) {
+                put(chatId, userId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(UUID chatId, UUID userId) {
+        if (current.size() >= generationEntries) {
+            rotate();
+        }
+        current.put(chatId.getMostSignificantBits(), chatId.getLeastSignificantBits(),
+            userId.getMostSignificantBits(), userId.getLeastSignificantBits());
+    }
+
+    private void expire() {
+        lock.writeLock().lock();
+        try {
+            long elapsed = System.nanoTime() - rotatedAt;
+            if (elapsed >= ttlNanos) {
+                rotate();
+                // After an idle spell current is as old as previous; neither may be served any longer.
+                if (elapsed >= 2 * ttlNanos) {
+                    rotate();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rotate() {
+        LongPairHashMap dropped = previous;
+        previous = current;
+        dropped.clear();
+        current = dropped;
+        rotatedAt = System.nanoTime();
+    }
+
+    public void invalidate(UUID chatId) {
+        Runnable task = () -> {
+            evict(chatId);
+            try {
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL, chatId.toString());
+            } catch (Exception ex) {
+                log.warn("Failed to broadcast ownership invalidation for chat {}: {}", chatId, ex.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+            return;
+        }
+        task.run();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            evict(UUID.fromString(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException ex) {
+            log.warn("Ignoring malformed ownership invalidation: {}", ex.getMessage());
+        }
+    }
+
+    private void evict(UUID chatId) {
+        lock.writeLock().lock();
+        try {
+            epochs[stripe(chatId)]++;
+            current.remove(chatId.getMostSignificantBits(), chatId.getLeastSignificantBits());
+            previous.remove(chatId.getMostSignificantBits(), chatId.getLeastSignificantBits());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int stripe(UUID chatId) {
+        return (int) (chatId.getMostSignificantBits() ^ chatId.getLeastSignificantBits()) & (EPOCH_STRIPES - 1);
+    }
+
+    private int size() {
+        lock.readLock().lock();
+        try {
+            return current.size() + previous.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.minichat.api.chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ChatPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatPurger.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int chatsPerRun;
+    private final int batchSize;
+    private final long pauseMs;
+
+    private final AtomicLong pendingChats = new AtomicLong();
+    private final Counter purgedChats;
+    private final Counter purgedMessages;
+    private final Counter purgedGenerations;
+    private final Counter purgedSummaries;
+
+    public ChatPurger(JdbcTemplate jdbcTemplate,
+                      MeterRegistry registry,
+                      @Value("${app.purge.enabled}") boolean enabled,
+                      @Value("${app.purge.chats-per-run}") int chatsPerRun,
+                      @Value("${app.purge.batch-size}") int batchSize,
+                      @Value("${app.purge.pause-ms}") long pauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.chatsPerRun = chatsPerRun;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+
+        Gauge.builder("minichat.chat.purge.pending", pendingChats, AtomicLong::get)
+            .description("Soft-deleted chats waiting to be purged")
+            .register(registry);
+        this.purgedChats = Counter.builder("minichat.chat.purge.chats").register(registry);
+        this.purgedMessages = Counter.builder("minichat.chat.purge.rows").tag("table", "messages").register(registry);
+        this.purgedGenerations = Counter.builder("minichat.chat.purge.rows").tag("table", "generations").register(registry);
+        this.purgedSummaries = Counter.builder("minichat.chat.purge.rows").tag("table", "chat_summaries").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.purge.interval-ms}", initialDelayString = "${app.purge.interval-ms}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+
+        Long pending = jdbcTemplate.queryForObject("SELECT count(*) FROM chats WHERE deleted_at IS NOT NULL", Long.class);
+        pendingChats.set(pending == null ? 0 : pending);
+
+        List<UUID> chatIds = jdbcTemplate.queryForList(
+            "SELECT id FROM chats WHERE deleted_at IS NOT NULL ORDER BY deleted_at ASC LIMIT ?", UUID.class, chatsPerRun);
+        for (UUID chatId : chatIds) {
+            try {
+                purgeChat(chatId);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                log.warn("Failed to purge chat {}: {}", chatId, ex.getMessage());
+            }
+        }
+    }
+
+    private void purgeChat(UUID chatId) throws InterruptedException {
+        // The outer chat_id predicate is what lets the delete prune to the chat's messages partition.
+        deleteInBatches("DELETE FROM messages WHERE chat_id = ? AND id IN (SELECT id FROM messages WHERE chat_id = ? LIMIT ?)",
+            purgedMessages, chatId, chatId);
+        // Deleting on the full primary key lets each row's delete prune to its month's partition.
+        deleteInBatches("""
+            DELETE FROM generations
+            WHERE (id, created_at) IN (SELECT id, created_at FROM generations WHERE chat_id = ? LIMIT ?)
+            """, purgedGenerations, chatId);
+        deleteInBatches("DELETE FROM chat_summaries WHERE message_id IN (SELECT message_id FROM chat_summaries WHERE chat_id = ? LIMIT ?)",
+            purgedSummaries, chatId);
+
+        if (jdbcTemplate.update("DELETE FROM chats WHERE id = ? AND deleted_at IS NOT NULL", chatId) == 1) {
+            purgedChats.increment();
+            pendingChats.updateAndGet(count -> Math.max(0, count - 1));
+        }
+    }
+
+    private void deleteInBatches(String sql, Counter counter, Object... keys) throws InterruptedException {
+        Object[] args = Arrays.copyOf(keys, keys.length + 1);
+        args[keys.length] = batchSize;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql, args);
+            counter.increment(deleted);
+            if (deleted > 0 && pauseMs > 0) {
+                Thread.sleep(pauseMs);
+            }
+        } while (deleted == batchSize);
+    }
+}
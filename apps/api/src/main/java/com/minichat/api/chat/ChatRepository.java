@@ -1,13 +1,38 @@
 package com.minichat.api.chat;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ChatRepository extends JpaRepository<ChatEntity, UUID> {
     List<ChatEntity> findAllByUserIdOrderByUpdatedAtDesc(UUID userId);
     Optional<ChatEntity> findByIdAndUserId(UUID id, UUID userId);
     boolean existsByIdAndUserId(UUID id, UUID userId);
-    void deleteByIdAndUserId(UUID id, UUID userId);
+
+    @Modifying
+    @Query("""
+        UPDATE ChatEntity c
+        SET c.deletedAt = :deletedAt
+        WHERE c.id = :id
+          AND c.userId = :userId
+          AND c.deletedAt IS NULL
+        """)
+    int softDelete(@Param("id") UUID id, @Param("userId") UUID userId, @Param("deletedAt") Instant deletedAt);
+
+    @Modifying
+    @Query("UPDATE ChatEntity c SET c.updatedAt = :updatedAt WHERE c.id = :id")
+    int touch(@Param("id") UUID id, @Param("updatedAt") Instant updatedAt);
+
+    // Row lock serializes appends to the same chat so two writers cannot both extend the same leaf.
+    @Query(value = "SELECT active_leaf_id FROM chats WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<UUID> lockActiveLeaf(@Param("id") UUID id);
+
+    @Modifying
+    @Query(value = "UPDATE chats SET active_leaf_id = :leafId, updated_at = :updatedAt WHERE id = :id", nativeQuery = true)
+    int advanceLeaf(@Param("id") UUID id, @Param("leafId") UUID leafId, @Param("updatedAt") Instant updatedAt);
 }
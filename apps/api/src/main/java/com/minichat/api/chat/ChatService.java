@@ -1,12 +1,24 @@
 package com.minichat.api.chat;
 
+import com.minichat.api.archive.ArchivedMessage;
+import com.minichat.api.archive.ChatArchiveService;
 import com.minichat.api.common.NotFoundException;
+import com.minichat.api.common.SingleFlight;
+import com.minichat.api.datasource.ReadYourWritesTracker;
 import com.minichat.api.event.DomainEventPublisher;
+import com.minichat.api.tokenizer.TokenizerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class ChatService {
@@ -15,10 +27,35 @@ public class ChatService {
 
     private final ChatRepository chatRepository;
     private final DomainEventPublisher eventPublisher;
+    private final ChatOwnershipIndex ownershipIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenizerService tokenizer;
+    private final ChatArchiveService archiveService;
+    private final ReadYourWritesTracker writesTracker;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SingleFlight<UUID, List<ChatDtos.ChatResponse>> listFlights;
 
-    public ChatService(ChatRepository chatRepository, DomainEventPublisher eventPublisher) {
+    public ChatService(ChatRepository chatRepository,
+                       DomainEventPublisher eventPublisher,
+                       ChatOwnershipIndex ownershipIndex,
+                       JdbcTemplate jdbcTemplate,
+                       TokenizerService tokenizer,
+                       ChatArchiveService archiveService,
+                       ReadYourWritesTracker writesTracker,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry registry,
+                       @Value("${app.single-flight.enabled}") boolean singleFlightEnabled,
+                       @Value("${app.single-flight.result-ttl-ms}") long resultTtlMs) {
         this.chatRepository = chatRepository;
         this.eventPublisher = eventPublisher;
+        this.ownershipIndex = ownershipIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenizer = tokenizer;
+        this.archiveService = archiveService;
+        this.writesTracker = writesTracker;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.listFlights = new SingleFlight<>("chats.list", singleFlightEnabled, resultTtlMs, registry);
     }
 
     @Transactional
@@ -27,6 +64,7 @@ public class ChatService {
         chat.setUserId(userId);
         chat.setTitle(normalizeTitle(title));
         ChatEntity saved = chatRepository.save(chat);
+        ownershipIndex.register(saved.getId(), userId);
 
         eventPublisher.publishAudit(userId, "create_chat", Map.of(
             "chatId", saved.getId().toString(),
@@ -36,29 +74,99 @@ public class ChatService {
         return toResponse(saved);
     }
 
-    @Transactional(readOnly = true)
     public List<ChatDtos.ChatResponse> list(UUID userId) {
-        return chatRepository.findAllByUserIdOrderByUpdatedAtDesc(userId)
+        // Retry storms from one user share a query; right after the user's own write (new chat, rename, new
+        // message moving updated_at) the list is read fresh. Only the load is transactional, so callers waiting on
+        // a shared load hold no connection.
+        if (writesTracker.isSticky(userId)) {
+            return listFlights.bypass(() -> loadList(userId));
+        }
+        return listFlights.execute(userId, () -> loadList(userId));
+    }
+
+    private List<ChatDtos.ChatResponse> loadList(UUID userId) {
+        return readOnlyTransaction.execute(status -> chatRepository.findAllByUserIdOrderByUpdatedAtDesc(userId)
             .stream()
             .map(this::toResponse)
-            .toList();
+            .toList());
     }
 
     @Transactional
     public ChatDtos.ChatResponse rename(UUID userId, UUID chatId, String newTitle) {
-        ChatEntity chat = chatRepository.findByIdAndUserId(chatId, userId)
-            .orElseThrow(() -> new NotFoundException("Chat not found"));
-        chat.setTitle(normalizeTitle(newTitle));
-        chat.touch();
-        return toResponse(chatRepository.save(chat));
+        String title = normalizeTitle(newTitle);
+        Instant updatedAt = Instant.now();
+        List<Instant> createdAt = jdbcTemplate.query("""
+            UPDATE chats
+            SET title = ?, updated_at = ?
+            WHERE id = ? AND user_id = ? AND deleted_at IS NULL
+            RETURNING created_at
+            """, (rs, rowNum) -> rs.getTimestamp("created_at").toInstant(),
+            title, Timestamp.from(updatedAt), chatId, userId);
+        if (createdAt.isEmpty()) {
+            throw new NotFoundException("Chat not found");
+        }
+        return new ChatDtos.ChatResponse(chatId, title, createdAt.get(0), updatedAt);
+    }
+
+    // The active leaf's prefix sum is the size of the conversation; message content is never read. Until the
+    // backfill has reached the chat, the counts along the path are summed instead.
+    @Transactional(readOnly = true)
+    public ChatDtos.ChatTokensResponse tokens(UUID userId, UUID chatId) {
+        ownershipIndex.requireOwner(userId, chatId);
+
+        List<ChatDtos.ChatTokensResponse> leaf = jdbcTemplate.query("""
+            SELECT c.active_leaf_id, m.token_prefix, m.token_encoding
+            FROM chats c
+            LEFT JOIN messages m ON m.id = c.active_leaf_id AND m.chat_id = c.id
+            WHERE c.id = ?
+            """, (rs, rowNum) -> {
+                Long prefix = rs.getObject("token_prefix", Long.class);
+                return new ChatDtos.ChatTokensResponse(rs.getObject("active_leaf_id", UUID.class),
+                    prefix == null ? 0 : prefix, rs.getString("token_encoding"), prefix == null);
+            }, chatId);
+        if (leaf.isEmpty()) {
+            throw new NotFoundException("Chat not found");
+        }
+        ChatDtos.ChatTokensResponse response = leaf.get(0);
+        if (response.activeLeafId() == null) {
+            return new ChatDtos.ChatTokensResponse(null, 0, tokenizer.encoding(), false);
+        }
+        if (!response.pending()) {
+            return response;
+        }
+        // An archived chat's leaf row lives in its segment block, prefix sum included.
+        Optional<ArchivedMessage> archivedLeaf = archiveService.find(chatId)
+            .flatMap(chat -> chat.messages().stream().filter(m -> m.id().equals(response.activeLeafId())).findFirst());
+        if (archivedLeaf.isPresent() && archivedLeaf.get().tokenPrefix() != null) {
+            return new ChatDtos.ChatTokensResponse(response.activeLeafId(), archivedLeaf.get().tokenPrefix(),
+                archivedLeaf.get().tokenEncoding(), false);
+        }
+
+        return jdbcTemplate.queryForObject("""
+            WITH RECURSIVE path AS (
+                SELECT m.id, m.parent_id, m.token_count
+                FROM messages m
+                WHERE m.id = ?
+                  AND m.chat_id = ?
+                UNION ALL
+                SELECT p.id, p.parent_id, p.token_count
+                FROM messages p
+                JOIN path ON p.id = path.parent_id
+                WHERE p.chat_id = ?
+            )
+            SELECT coalesce(sum(token_count), 0) AS tokens, bool_or(token_count IS NULL) AS pending FROM path
+            """, (rs, rowNum) -> new ChatDtos.ChatTokensResponse(response.activeLeafId(), rs.getLong("tokens"),
+                tokenizer.encoding(), rs.getBoolean("pending")),
+            response.activeLeafId(), chatId, chatId);
     }
 
     @Transactional
     public void delete(UUID userId, UUID chatId) {
-        if (!chatRepository.existsByIdAndUserId(chatId, userId)) {
+        if (chatRepository.softDelete(chatId, userId, Instant.now()) == 0) {
             throw new NotFoundException("Chat not found");
         }
-        chatRepository.deleteByIdAndUserId(chatId, userId);
+        ownershipIndex.invalidate(chatId);
+        eventPublisher.publishAudit(userId, "delete_chat", Map.of("chatId", chatId.toString()));
     }
 
     private String normalizeTitle(String title) {
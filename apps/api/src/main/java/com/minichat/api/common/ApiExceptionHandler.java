@@ -3,6 +3,7 @@ package com.minichat.api.common;
 import jakarta.validation.ConstraintViolationException;
 import java.time.Instant;
 import java.util.Map;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -13,6 +14,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class ApiExceptionHandler {
 
+    public static final String REQUEST_ID_CONSTRAINT = "uq_generation_requests_user_request";
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleNotFound(NotFoundException ex) {
         return build(HttpStatus.NOT_FOUND, "not_found", ex.getMessage());
@@ -23,6 +26,15 @@ public class ApiExceptionHandler {
         return build(HttpStatus.CONFLICT, "conflict", ex.getMessage());
     }
 
+    // Only a racing retry of the same generation request is the client's conflict; any other violation is a bug.
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, Object>> handleDataIntegrity(DataIntegrityViolationException ex) {
+        if (violates(ex, REQUEST_ID_CONSTRAINT)) {
+            return build(HttpStatus.CONFLICT, "conflict", "Generation request is already in progress");
+        }
+        return build(HttpStatus.INTERNAL_SERVER_ERROR, "internal_error", "Request could not be saved");
+    }
+
     @ExceptionHandler(UnauthorizedException.class)
     public ResponseEntity<Map<String, Object>> handleUnauthorized(UnauthorizedException ex) {
         return build(HttpStatus.UNAUTHORIZED, "unauthorized", ex.getMessage());
@@ -48,6 +60,16 @@ public class ApiExceptionHandler {
         return build(HttpStatus.INTERNAL_SERVER_ERROR, "internal_error", ex.getMessage());
     }
 
+    // The driver names the constraint in its message; the exception types differ between JPA and JdbcTemplate.
+    public static boolean violates(Throwable ex, String constraint) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("\"" + constraint + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private ResponseEntity<Map<String, Object>> build(HttpStatus status, String code, String message) {
         return ResponseEntity.status(status).body(Map.of(
             "error", Map.of(
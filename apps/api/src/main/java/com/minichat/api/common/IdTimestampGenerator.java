@@ -0,0 +1,29 @@
+package com.minichat.api.common;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.UUID;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+// Fills an insert-only timestamp from the entity's UUIDv7 id, which is generated first, so the two never disagree
+// and the id alone is enough to find the row's created_at.
+public class IdTimestampGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        if (currentValue != null) {
+            return currentValue;
+        }
+        Object id = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+        Instant timestamp = id instanceof UUID uuid ? UuidV7Generator.timestamp(uuid) : null;
+        return timestamp != null ? timestamp : Instant.now();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,138 @@
+package com.minichat.api.common;
+
+import java.util.Arrays;
+
+public final class LongPairHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongPairHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int indexOf(long keyHi, long keyLo) {
+        checkKey(keyHi, keyLo);
+        int slot = slot(keyHi, keyLo);
+        while (!isEmpty(slot)) {
+            if (keys[slot * 2] == keyHi && keys[slot * 2 + 1] == keyLo) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public long valueHi(int index) {
+        return values[index * 2];
+    }
+
+    public long valueLo(int index) {
+        return values[index * 2 + 1];
+    }
+
+    public void put(long keyHi, long keyLo, long valueHi, long valueLo) {
+        checkKey(keyHi, keyLo);
+        if (size >= resizeAt) {
+            rehash((mask + 1) * 2);
+        }
+        int slot = slot(keyHi, keyLo);
+        while (!isEmpty(slot)) {
+            if (keys[slot * 2] == keyHi && keys[slot * 2 + 1] == keyLo) {
+                values[slot * 2] = valueHi;
+                values[slot * 2 + 1] = valueLo;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        store(slot, keyHi, keyLo, valueHi, valueLo);
+        size++;
+    }
+
+    public boolean remove(long keyHi, long keyLo) {
+        int hole = indexOf(keyHi, keyLo);
+        if (hole < 0) {
+            return false;
+        }
+        // Backward-shift deletion keeps every probe chain contiguous without tombstones.
+        int slot = (hole + 1) & mask;
+        while (!isEmpty(slot)) {
+            int ideal = slot(keys[slot * 2], keys[slot * 2 + 1]);
+            if (((slot - ideal) & mask) >= ((slot - hole) & mask)) {
+                store(hole, keys[slot * 2], keys[slot * 2 + 1], values[slot * 2], values[slot * 2 + 1]);
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        store(hole, 0, 0, 0, 0);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i += 2) {
+            if (oldKeys[i] != 0 || oldKeys[i + 1] != 0) {
+                int slot = slot(oldKeys[i], oldKeys[i + 1]);
+                while (!isEmpty(slot)) {
+                    slot = (slot + 1) & mask;
+                }
+                store(slot, oldKeys[i], oldKeys[i + 1], oldValues[i], oldValues[i + 1]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity * 2];
+        values = new long[capacity * 2];
+        mask = capacity - 1;
+        resizeAt = capacity / 4 * 3;
+    }
+
+    private void store(int slot, long keyHi, long keyLo, long valueHi, long valueLo) {
+        keys[slot * 2] = keyHi;
+        keys[slot * 2 + 1] = keyLo;
+        values[slot * 2] = valueHi;
+        values[slot * 2 + 1] = valueLo;
+    }
+
+    private boolean isEmpty(int slot) {
+        return keys[slot * 2] == 0 && keys[slot * 2 + 1] == 0;
+    }
+
+    private int slot(long keyHi, long keyLo) {
+        long h = keyHi * 0x9E3779B97F4A7C15L ^ keyLo;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private static void checkKey(long keyHi, long keyLo) {
+        if (keyHi == 0 && keyLo == 0) {
+            throw new IllegalArgumentException("The all-zero key is reserved");
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = Math.max(MIN_CAPACITY, (int) Math.min(1 << 30, (long) expectedSize * 4 / 3 + 1));
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+}
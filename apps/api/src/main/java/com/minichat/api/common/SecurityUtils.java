@@ -22,4 +22,12 @@ public final class SecurityUtils {
     public static UUID currentUserId() {
         return currentUser().userId();
     }
+
+    public static UUID currentUserIdOrNull() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof JwtUserPrincipal principal) {
+            return principal.userId();
+        }
+        return null;
+    }
 }
@@ -0,0 +1,119 @@
+package com.minichat.api.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Runs at most one load per key at a time: callers arriving while a load for an equal key is running wait for it
+// and share its result or exception. With a result TTL, a successful result is also served to callers arriving
+// within the TTL after it completed. Loads run on the first caller's thread. Waiting callers block, so callers must
+// not be inside a transaction here: the loader opens its own, or every waiter would pin a pooled connection.
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Executor expiry;
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter cached;
+    private final Counter bypassed;
+
+    public SingleFlight(String name, boolean enabled, long resultTtlMs, MeterRegistry registry) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(resultTtlMs);
+        this.expiry = CompletableFuture.delayedExecutor(Math.max(resultTtlMs, 1), TimeUnit.MILLISECONDS);
+
+        Gauge.builder("minichat.singleflight.keys", flights, ConcurrentHashMap::size)
+            .tag("name", name)
+            .description("Keys with a running load or a cached result")
+            .register(registry);
+        this.executed = counter(registry, name, "executed");
+        this.coalesced = counter(registry, name, "coalesced");
+        this.cached = counter(registry, name, "cached");
+        this.bypassed = counter(registry, name, "bypassed");
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        if (!enabled) {
+            return bypass(loader);
+        }
+
+        Flight<V> flight = new Flight<>();
+        Flight<V> current = flights.compute(key, (k, existing) -> existing != null && existing.joinable(ttlNanos) ? existing : flight);
+        if (current != flight) {
+            (current.future.isDone() ? cached : coalesced).increment();
+            return current.await();
+        }
+
+        executed.increment();
+        boolean succeeded = false;
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            succeeded = true;
+            return value;
+        } catch (RuntimeException | Error ex) {
+            flight.future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            if (succeeded && ttlNanos > 0) {
+                expiry.execute(() -> flights.remove(key, flight));
+            } else {
+                flights.remove(key, flight);
+            }
+        }
+    }
+
+    // For callers that must not share a result, e.g. ones that need to read their own recent writes.
+    public V bypass(Supplier<V> loader) {
+        bypassed.increment();
+        return loader.get();
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, String result) {
+        return Counter.builder("minichat.singleflight.calls")
+            .tag("name", name)
+            .tag("result", result)
+            .register(registry);
+    }
+
+    private static final class Flight<V> {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        void complete(V value) {
+            completedAt = System.nanoTime();
+            future.complete(value);
+        }
+
+        boolean joinable(long ttlNanos) {
+            if (!future.isDone()) {
+                return true;
+            }
+            return !future.isCompletedExceptionally() && System.nanoTime() - completedAt < ttlNanos;
+        }
+
+        V await() {
+            try {
+                return future.join();
+            } catch (CompletionException ex) {
+                // The leader's own exception, rethrown as is so callers see the same error they would have hit.
+                if (ex.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (ex.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw ex;
+            }
+        }
+    }
+}
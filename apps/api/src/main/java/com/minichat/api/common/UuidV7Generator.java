@@ -0,0 +1,56 @@
+package com.minichat.api.common;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final AtomicLong LAST_TIMESTAMP_AND_SEQUENCE = new AtomicLong();
+
+    public static UUID next() {
+        long now = System.currentTimeMillis();
+        long state = LAST_TIMESTAMP_AND_SEQUENCE.updateAndGet(previous -> {
+            long previousMillis = previous >>> SEQUENCE_BITS;
+            if (now > previousMillis) {
+                return (now << SEQUENCE_BITS) | ThreadLocalRandom.current().nextLong(SEQUENCE_MASK >>> 1);
+            }
+            if ((previous & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                return previous + 1;
+            }
+            return (previousMillis + 1) << SEQUENCE_BITS;
+        });
+
+        long millis = state >>> SEQUENCE_BITS;
+        long sequence = state & SEQUENCE_MASK;
+        long mostSigBits = (millis << 16) | 0x7000L | sequence;
+        long leastSigBits = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    // The creation time encoded in a version 7 id; null for any other version.
+    public static Instant timestamp(UUID id) {
+        if (id.version() != 7) {
+            return null;
+        }
+        return Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
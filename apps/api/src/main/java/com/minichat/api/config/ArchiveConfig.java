@@ -0,0 +1,21 @@
+package com.minichat.api.config;
+
+import com.minichat.api.archive.BlobStore;
+import com.minichat.api.archive.LocalBlobStore;
+import java.nio.file.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ArchiveConfig {
+
+    @Bean
+    public BlobStore archiveBlobStore(@Value("${app.archive.store}") String store,
+                                      @Value("${app.archive.local-dir}") String localDir) {
+        return switch (store) {
+            case "local" -> new LocalBlobStore(Path.of(localDir));
+            default -> throw new IllegalStateException("Unsupported archive store: " + store);
+        };
+    }
+}
@@ -1,20 +1,25 @@
 package com.minichat.api.config;
 
+import com.minichat.api.datasource.Workload;
+import com.minichat.api.datasource.WorkloadContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import org.springframework.core.task.TaskExecutor;
 
 @Configuration
 public class AsyncConfig {
 
     @Bean(name = "generationExecutor")
-    public TaskExecutor generationExecutor() {
+    public ThreadPoolTaskExecutor generationExecutor(@Value("${app.generation.executor.core-size}") int coreSize,
+                                                     @Value("${app.generation.executor.max-size}") int maxSize,
+                                                     @Value("${app.generation.executor.queue-capacity}") int queueCapacity) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(4);
-        executor.setMaxPoolSize(16);
-        executor.setQueueCapacity(200);
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix("generation-");
+        executor.setTaskDecorator(WorkloadContext.decorator(Workload.STREAM));
         executor.initialize();
         return executor;
     }
@@ -0,0 +1,101 @@
+package com.minichat.api.config;
+
+import com.minichat.api.auth.AuthDtos;
+import com.minichat.api.auth.UserEntity;
+import com.minichat.api.chat.ChatDtos;
+import com.minichat.api.chat.ChatEntity;
+import com.minichat.api.common.IdTimestampGenerator;
+import com.minichat.api.common.UuidV7Generator;
+import com.minichat.api.generation.GenerationDtos;
+import com.minichat.api.generation.GenerationEntity;
+import com.minichat.api.inference.InferenceClient;
+import com.minichat.api.message.MessageContentListener;
+import com.minichat.api.message.MessageDtos;
+import com.minichat.api.message.MessageEntity;
+import com.minichat.api.search.SearchDtos;
+import com.minichat.api.usage.UsageDtos;
+import java.util.List;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+public class NativeHintsConfig {
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        private static final List<Class<?>> JPA_TYPES = List.of(
+            UserEntity.class, ChatEntity.class, MessageEntity.class, GenerationEntity.class,
+            MessageContentListener.class, UuidV7Generator.class, IdTimestampGenerator.class);
+
+        private static final List<Class<?>> JSON_TYPE_HOLDERS = List.of(
+            AuthDtos.class, ChatDtos.class, MessageDtos.class, GenerationDtos.class, SearchDtos.class, UsageDtos.class,
+            InferenceClient.class);
+
+        // jjwt-api loads its implementation by class name, and jjwt-impl finds the Jackson serializer via ServiceLoader.
+        private static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+        // LZ4Factory reads the INSTANCE field of the pure-Java codecs reflectively once the JNI build fails to load.
+        private static final List<String> LZ4_TYPES = List.of(
+            "net.jpountz.lz4.LZ4JavaSafeCompressor",
+            "net.jpountz.lz4.LZ4JavaSafeFastDecompressor",
+            "net.jpountz.lz4.LZ4JavaSafeSafeDecompressor",
+            "net.jpountz.lz4.LZ4HCJavaSafeCompressor",
+            "net.jpountz.lz4.LZ4JavaUnsafeCompressor",
+            "net.jpountz.lz4.LZ4JavaUnsafeFastDecompressor",
+            "net.jpountz.lz4.LZ4JavaUnsafeSafeDecompressor",
+            "net.jpountz.lz4.LZ4HCJavaUnsafeCompressor");
+
+        private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> type : JPA_TYPES) {
+                hints.reflection().registerType(type,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+
+            for (Class<?> holder : JSON_TYPE_HOLDERS) {
+                for (Class<?> nested : holder.getDeclaredClasses()) {
+                    if (nested.isRecord()) {
+                        bindingRegistrar.registerReflectionHints(hints.reflection(), nested);
+                    }
+                }
+            }
+
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            for (String type : LZ4_TYPES) {
+                hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.PUBLIC_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+            hints.resources().registerPattern("db/migration/*.sql");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.minichat.api.config;
+
+import com.minichat.api.datasource.Workload;
+import com.minichat.api.datasource.WorkloadContext;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    @Bean
+    public ThreadPoolTaskSchedulerCustomizer backgroundWorkloadCustomizer() {
+        return scheduler -> scheduler.setThreadFactory(WorkloadContext.threadFactory(
+            Workload.BACKGROUND, new CustomizableThreadFactory(scheduler.getThreadNamePrefix())));
+    }
+}
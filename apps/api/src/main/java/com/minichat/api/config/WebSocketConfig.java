@@ -0,0 +1,53 @@
+package com.minichat.api.config;
+
+import com.minichat.api.generation.GenerationWebSocketHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    public static final String GENERATIONS_PATH = "/api/ws/generations";
+
+    private final GenerationWebSocketHandler generationWebSocketHandler;
+    private final boolean enabled;
+    private final String webOrigin;
+    private final int maxFrameBytes;
+    private final long idleTimeoutMs;
+
+    public WebSocketConfig(GenerationWebSocketHandler generationWebSocketHandler,
+                           @Value("${app.generation.ws.enabled}") boolean enabled,
+                           @Value("${app.web-origin:http://localhost:3000}") String webOrigin,
+                           @Value("${app.generation.ws.max-frame-bytes}") int maxFrameBytes,
+                           @Value("${app.generation.ws.idle-timeout-ms}") long idleTimeoutMs) {
+        this.generationWebSocketHandler = generationWebSocketHandler;
+        this.enabled = enabled;
+        this.webOrigin = webOrigin;
+        this.maxFrameBytes = maxFrameBytes;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Checked at runtime rather than with a bean condition so the AOT-processed context still honors it.
+        if (!enabled) {
+            return;
+        }
+        registry.addHandler(generationWebSocketHandler, GENERATIONS_PATH).setAllowedOrigins(webOrigin);
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxBinaryMessageBufferSize(maxFrameBytes);
+        container.setMaxTextMessageBufferSize(maxFrameBytes);
+        container.setMaxSessionIdleTimeout(idleTimeoutMs);
+        return container;
+    }
+}
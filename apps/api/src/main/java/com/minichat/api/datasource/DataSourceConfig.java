@@ -0,0 +1,104 @@
+package com.minichat.api.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public HikariDataSource requestDataSource(DataSourceProperties properties, Environment environment) {
+        return pool(properties, environment, "request");
+    }
+
+    @Bean
+    public HikariDataSource streamDataSource(DataSourceProperties properties, Environment environment) {
+        return pool(properties, environment, "stream");
+    }
+
+    @Bean
+    public HikariDataSource backgroundDataSource(DataSourceProperties properties, Environment environment) {
+        return pool(properties, environment, "background");
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("backgroundDataSource") HikariDataSource backgroundDataSource,
+                                               @Qualifier("requestDataSource") HikariDataSource requestDataSource,
+                                               DataSourceProperties properties,
+                                               Environment environment,
+                                               MeterRegistry registry,
+                                               @Value("${app.datasource.replica-urls}") String replicaUrls,
+                                               @Value("${app.datasource.max-lag-bytes}") long maxLagBytes) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<String> urls = Arrays.stream(replicaUrls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(urls.get(i)).build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(requestDataSource.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replicas.put("replica-" + i, replica);
+        }
+        return new ReplicaLagMonitor(backgroundDataSource, replicas, maxLagBytes, registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("requestDataSource") HikariDataSource requestDataSource,
+                                 @Qualifier("streamDataSource") HikariDataSource streamDataSource,
+                                 @Qualifier("backgroundDataSource") HikariDataSource backgroundDataSource,
+                                 ReplicaLagMonitor lagMonitor,
+                                 ReadYourWritesTracker writesTracker) {
+        WorkloadRoutingDataSource primary = new WorkloadRoutingDataSource(writesTracker, !lagMonitor.replicas().isEmpty());
+        primary.setTargetDataSources(Map.of(
+            Workload.REQUEST, requestDataSource,
+            Workload.STREAM, streamDataSource,
+            Workload.BACKGROUND, backgroundDataSource));
+        primary.setDefaultTargetDataSource(requestDataSource);
+        primary.afterPropertiesSet();
+
+        if (lagMonitor.replicas().isEmpty()) {
+            return new LazyConnectionDataSourceProxy(primary);
+        }
+
+        Map<Object, Object> targets = new HashMap<>(lagMonitor.replicas());
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primary);
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+            new ArrayList<>(lagMonitor.replicas().keySet()), lagMonitor, writesTracker);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        // Connections are fetched lazily so the transaction's read-only flag is known when routing.
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private HikariDataSource pool(DataSourceProperties properties, Environment environment, String name) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        binder.bind("app.datasource.pools." + name, Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,50 @@
+package com.minichat.api.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PoolCapacityValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolCapacityValidator.class);
+
+    private final ThreadPoolTaskExecutor generationExecutor;
+    private final ObjectProvider<ThreadPoolTaskScheduler> taskScheduler;
+    private final HikariDataSource streamDataSource;
+    private final HikariDataSource backgroundDataSource;
+
+    public PoolCapacityValidator(@Qualifier("generationExecutor") ThreadPoolTaskExecutor generationExecutor,
+                                 ObjectProvider<ThreadPoolTaskScheduler> taskScheduler,
+                                 @Qualifier("streamDataSource") HikariDataSource streamDataSource,
+                                 @Qualifier("backgroundDataSource") HikariDataSource backgroundDataSource) {
+        this.generationExecutor = generationExecutor;
+        this.taskScheduler = taskScheduler;
+        this.streamDataSource = streamDataSource;
+        this.backgroundDataSource = backgroundDataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void validate() {
+        check("generationExecutor", generationExecutor.getMaxPoolSize(), streamDataSource);
+        ThreadPoolTaskScheduler scheduler = taskScheduler.getIfUnique();
+        if (scheduler != null) {
+            check("taskScheduler", scheduler.getPoolSize(), backgroundDataSource);
+        }
+    }
+
+    private void check(String executorName, int threads, HikariDataSource pool) {
+        if (threads > pool.getMaximumPoolSize()) {
+            log.warn("{} can run {} threads but the '{}' pool only has {} connections; "
+                    + "excess threads will wait up to {} ms for a connection",
+                executorName, threads, pool.getPoolName(), pool.getMaximumPoolSize(), pool.getConnectionTimeout());
+        }
+    }
+}
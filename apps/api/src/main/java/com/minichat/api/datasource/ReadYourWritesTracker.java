@@ -0,0 +1,99 @@
+package com.minichat.api.datasource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReadYourWritesTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadYourWritesTracker.class);
+
+    // Keeps the highest commit position seen for the user; a slower node recording an older one cannot lower it.
+    private static final DefaultRedisScript<Long> RAISE_SCRIPT = new DefaultRedisScript<>("""
+        local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+        local lsn = tonumber(ARGV[1])
+        if lsn > current then
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            return lsn
+        end
+        redis.call('PEXPIRE', KEYS[1], ARGV[2])
+        return current
+        """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<UUID, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final long stickyMs;
+
+    public ReadYourWritesTracker(StringRedisTemplate redisTemplate,
+                                 @Value("${app.datasource.sticky-ms}") long stickyMs) {
+        this.redisTemplate = redisTemplate;
+        this.stickyMs = stickyMs;
+    }
+
+    public void markWrite(UUID userId) {
+        if (userId != null) {
+            stickyUntil.put(userId, System.currentTimeMillis() + stickyMs);
+        }
+    }
+
+    public boolean isSticky(UUID userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            stickyUntil.remove(userId, until);
+            return false;
+        }
+        return true;
+    }
+
+    // The sticky window above only exists on the node that committed. The primary's WAL position after the commit
+    // is shared through Redis, so every node can tell which replicas have replayed the user's last write.
+    public void recordCommit(UUID userId, long lsn) {
+        if (userId == null || lsn <= 0) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RAISE_SCRIPT, List.of(key(userId)), Long.toString(lsn), Long.toString(stickyMs));
+        } catch (Exception ex) {
+            log.warn("Failed to record commit position for user {}: {}", userId, ex.getMessage());
+        }
+    }
+
+    // 0 when the user has no recent write, or when Redis cannot say: replicas are then judged by lag alone.
+    public long requiredLsn(UUID userId) {
+        if (userId == null) {
+            return 0;
+        }
+        try {
+            String value = redisTemplate.opsForValue().get(key(userId));
+            return value == null ? 0 : Long.parseLong(value);
+        } catch (Exception ex) {
+            log.debug("Failed to read commit position for user {}: {}", userId, ex.getMessage());
+            return 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.sticky-ms}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until < now);
+    }
+
+    private String key(UUID userId) {
+        return "ryw:lsn:" + userId;
+    }
+}
@@ -0,0 +1,103 @@
+package com.minichat.api.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    private static final long UNKNOWN = -1;
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final long maxLagBytes;
+    private final Map<String, Long> lagBytes = new ConcurrentHashMap<>();
+    private final Map<String, Long> replayLsns = new ConcurrentHashMap<>();
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas, long maxLagBytes, MeterRegistry registry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLagBytes = maxLagBytes;
+        for (String key : replicas.keySet()) {
+            lagBytes.put(key, UNKNOWN);
+            Gauge.builder("minichat.datasource.replica.lag.bytes", lagBytes, values -> values.getOrDefault(key, UNKNOWN))
+                .description("WAL bytes the replica has not replayed yet; -1 when unreachable")
+                .tag("replica", key)
+                .register(registry);
+        }
+    }
+
+    public Map<String, DataSource> replicas() {
+        return replicas;
+    }
+
+    public boolean isHealthy(String key) {
+        long lag = lagBytes.getOrDefault(key, UNKNOWN);
+        return lag != UNKNOWN && lag <= maxLagBytes;
+    }
+
+    // As of the last refresh, so it only ever understates what the replica has replayed.
+    public long replayLsn(String key) {
+        return replayLsns.getOrDefault(key, UNKNOWN);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.lag-check-interval-ms}")
+    public void refresh() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        long primaryLsn;
+        try {
+            primaryLsn = queryLsn(primary, "SELECT pg_current_wal_lsn()::text");
+        } catch (Exception ex) {
+            log.warn("Failed to read primary WAL position: {}", ex.getMessage());
+            return;
+        }
+
+        replicas.forEach((key, dataSource) -> {
+            try {
+                long replayLsn = queryLsn(dataSource, "SELECT pg_last_wal_replay_lsn()::text");
+                replayLsns.put(key, replayLsn);
+                lagBytes.put(key, Math.max(0, primaryLsn - replayLsn));
+            } catch (Exception ex) {
+                if (lagBytes.put(key, UNKNOWN) != UNKNOWN) {
+                    log.warn("Replica {} marked unhealthy: {}", key, ex.getMessage());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private long queryLsn(DataSource dataSource, String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            if (!rs.next() || rs.getString(1) == null) {
+                throw new IllegalStateException("No WAL position returned");
+            }
+            return parseLsn(rs.getString(1));
+        }
+    }
+
+    static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+}
@@ -0,0 +1,48 @@
+package com.minichat.api.datasource;
+
+import com.minichat.api.common.SecurityUtils;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys;
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker writesTracker;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(List<String> replicaKeys, ReplicaLagMonitor lagMonitor, ReadYourWritesTracker writesTracker) {
+        this.replicaKeys = replicaKeys;
+        this.lagMonitor = lagMonitor;
+        this.writesTracker = writesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        UUID userId = SecurityUtils.currentUserIdOrNull();
+        // Writes are marked by WorkloadRoutingDataSource behind PRIMARY.
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (writesTracker.isSticky(userId)) {
+            return PRIMARY;
+        }
+
+        // A write committed through another node is only visible on replicas that have replayed past it.
+        long requiredLsn = writesTracker.requiredLsn(userId);
+        int size = replicaKeys.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            String key = replicaKeys.get((start + i) % size);
+            if (lagMonitor.isHealthy(key) && lagMonitor.replayLsn(key) >= requiredLsn) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+}
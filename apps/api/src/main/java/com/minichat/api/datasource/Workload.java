@@ -0,0 +1,7 @@
+package com.minichat.api.datasource;
+
+public enum Workload {
+    REQUEST,
+    STREAM,
+    BACKGROUND
+}
@@ -0,0 +1,40 @@
+package com.minichat.api.datasource;
+
+import java.util.concurrent.ThreadFactory;
+import org.springframework.core.task.TaskDecorator;
+
+public final class WorkloadContext {
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload == null ? Workload.REQUEST : workload;
+    }
+
+    public static TaskDecorator decorator(Workload workload) {
+        return task -> () -> {
+            Workload previous = CURRENT.get();
+            CURRENT.set(workload);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    public static ThreadFactory threadFactory(Workload workload, ThreadFactory delegate) {
+        return task -> delegate.newThread(() -> {
+            CURRENT.set(workload);
+            task.run();
+        });
+    }
+}
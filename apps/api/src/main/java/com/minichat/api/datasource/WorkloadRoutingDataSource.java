@@ -0,0 +1,64 @@
+package com.minichat.api.datasource;
+
+import com.minichat.api.common.SecurityUtils;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReadYourWritesTracker writesTracker;
+    private final boolean recordCommitLsn;
+
+    public WorkloadRoutingDataSource(ReadYourWritesTracker writesTracker, boolean recordCommitLsn) {
+        this.writesTracker = writesTracker;
+        this.recordCommitLsn = recordCommitLsn;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markWriteAfterCommit(SecurityUtils.currentUserIdOrNull(), connection);
+        }
+        return connection;
+    }
+
+    // Every read-write transaction opens the user's read-your-writes window, with or without replicas: replica
+    // routing and request coalescing both keep that user's reads off shared or lagging results while it lasts.
+    private void markWriteAfterCommit(UUID userId, Connection connection) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                writesTracker.markWrite(userId);
+                if (recordCommitLsn) {
+                    writesTracker.recordCommit(userId, currentLsn(connection));
+                }
+            }
+        });
+    }
+
+    // The transaction's connection is still held right after the commit, so this costs one round trip and no pool
+    // checkout; the position it returns is at or past the commit record.
+    private static long currentLsn(Connection connection) {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+            return rs.next() ? ReplicaLagMonitor.parseLsn(rs.getString(1)) : 0;
+        } catch (SQLException ex) {
+            return 0;
+        }
+    }
+}
@@ -30,6 +30,13 @@ public class GenerationController {
         return generationService.create(SecurityUtils.currentUserId(), chatId, request);
     }
 
+    @PostMapping("/chats/{id}/messages/{messageId}/regenerate")
+    public GenerationDtos.CreateGenerationResponse regenerate(@PathVariable("id") UUID chatId,
+                                                              @PathVariable("messageId") UUID messageId,
+                                                              @Valid @RequestBody GenerationDtos.RegenerateGenerationRequest request) {
+        return generationService.regenerate(SecurityUtils.currentUserId(), chatId, messageId, request);
+    }
+
     @GetMapping(value = "/generations/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public SseEmitter stream(@PathVariable("id") UUID generationId) {
         return generationService.stream(SecurityUtils.currentUserId(), generationId);
@@ -13,6 +13,16 @@ public final class GenerationDtos {
 
     public record CreateGenerationRequest(
         @NotBlank @Size(max = 20000) String userMessage,
+        @Size(max = 100) String model,
+        @Size(max = 10000) String systemPrompt,
+        @Min(0) @Max(2) Double temperature,
+        @Min(1) @Max(4096) Integer maxTokens,
+        @Size(max = 255) String requestId,
+        UUID editMessageId
+    ) {
+    }
+
+    public record RegenerateGenerationRequest(
         @Size(max = 100) String model,
         @Size(max = 10000) String systemPrompt,
         @Min(0) @Max(2) Double temperature,
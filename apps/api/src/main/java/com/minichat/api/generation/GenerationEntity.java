@@ -1,9 +1,9 @@
 package com.minichat.api.generation;
 
+import com.minichat.api.common.IdTimestamp;
+import com.minichat.api.common.UuidV7;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import java.time.Instant;
@@ -14,7 +14,7 @@ import java.util.UUID;
 public class GenerationEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "chat_id", nullable = false)
@@ -56,9 +56,18 @@ public class GenerationEntity {
     @Column(name = "error_message")
     private String errorMessage;
 
-    @Column(name = "request_id", unique = true)
+    @Column(name = "request_id")
     private String requestId;
 
+    @Column(name = "parent_message_id")
+    private UUID parentMessageId;
+
+    // Partition key: generations are range-partitioned by month on created_at. It is the id's timestamp, so
+    // lookups by id can name the partition.
+    @IdTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
     public UUID getId() {
         return id;
     }
@@ -174,4 +183,16 @@ public class GenerationEntity {
     public void setRequestId(String requestId) {
         this.requestId = requestId;
     }
+
+    public UUID getParentMessageId() {
+        return parentMessageId;
+    }
+
+    public void setParentMessageId(UUID parentMessageId) {
+        this.parentMessageId = parentMessageId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
 }
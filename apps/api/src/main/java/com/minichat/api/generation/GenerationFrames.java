@@ -0,0 +1,77 @@
+package com.minichat.api.generation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+// Binary framing for the multiplexed generation WebSocket. Every frame starts with an opcode byte and a
+// big-endian u32 tag chosen by the client; for STREAM the tag also names the stream in all server frames.
+final class GenerationFrames {
+
+    static final byte CREATE = 0x01;
+    static final byte STREAM = 0x02;
+    static final byte CANCEL = 0x03;
+
+    static final byte CREATED = (byte) 0x81;
+    static final byte STARTED = (byte) 0x82;
+    static final byte CANCELED = (byte) 0x83;
+    static final byte DELTA = (byte) 0x90;
+    static final byte USAGE = (byte) 0x91;
+    static final byte ERROR = (byte) 0x92;
+    static final byte DONE = (byte) 0x93;
+    static final byte EVENT = (byte) 0x94;
+    static final byte REQUEST_ERROR = (byte) 0xFF;
+
+    static final int HEADER_BYTES = 5;
+    static final int UUID_BYTES = 16;
+
+    private GenerationFrames() {
+    }
+
+    static UUID readUuid(ByteBuffer buffer) {
+        if (buffer.remaining() < UUID_BYTES) {
+            throw new IllegalArgumentException("Frame is too short");
+        }
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    static ByteBuffer created(int tag, UUID generationId) {
+        return header(CREATED, tag, UUID_BYTES)
+            .putLong(generationId.getMostSignificantBits())
+            .putLong(generationId.getLeastSignificantBits())
+            .flip();
+    }
+
+    static ByteBuffer tagOnly(byte op, int tag) {
+        return header(op, tag, 0).flip();
+    }
+
+    static ByteBuffer text(byte op, int tag, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return header(op, tag, bytes.length).put(bytes).flip();
+    }
+
+    static ByteBuffer usage(int tag, int inputTokens, int outputTokens) {
+        return header(USAGE, tag, 8).putInt(inputTokens).putInt(outputTokens).flip();
+    }
+
+    static ByteBuffer error(int tag, String code, String message) {
+        byte[] codeBytes = code.getBytes(StandardCharsets.UTF_8);
+        int codeLength = Math.min(codeBytes.length, 255);
+        byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+        return header(ERROR, tag, 1 + codeLength + messageBytes.length)
+            .put((byte) codeLength)
+            .put(codeBytes, 0, codeLength)
+            .put(messageBytes)
+            .flip();
+    }
+
+    static ByteBuffer requestError(int tag, int status, String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        return header(REQUEST_ERROR, tag, 2 + bytes.length).putShort((short) status).put(bytes).flip();
+    }
+
+    private static ByteBuffer header(byte op, int tag, int payloadBytes) {
+        return ByteBuffer.allocate(HEADER_BYTES + payloadBytes).put(op).putInt(tag);
+    }
+}
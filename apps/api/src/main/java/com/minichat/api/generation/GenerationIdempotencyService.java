@@ -0,0 +1,60 @@
+package com.minichat.api.generation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+@Component
+public class GenerationIdempotencyService {
+
+    private static final String PENDING = "pending";
+
+    // Deletes the key only while it still holds the claim, so a release never drops a result written meanwhile.
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration claimTtl;
+    private final Duration resultTtl;
+
+    public GenerationIdempotencyService(StringRedisTemplate redisTemplate,
+                                        @Value("${app.generation.idempotency.claim-ttl-seconds}") int claimTtlSeconds,
+                                        @Value("${app.generation.idempotency.result-ttl-seconds}") int resultTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.claimTtl = Duration.ofSeconds(claimTtlSeconds);
+        this.resultTtl = Duration.ofSeconds(resultTtlSeconds);
+    }
+
+    public UUID findGenerationId(UUID userId, String requestId) {
+        String value = redisTemplate.opsForValue().get(key(userId, requestId));
+        if (value == null || PENDING.equals(value)) {
+            return null;
+        }
+        return UUID.fromString(value);
+    }
+
+    public boolean tryClaim(UUID userId, String requestId) {
+        Boolean ok = redisTemplate.opsForValue().setIfAbsent(key(userId, requestId), PENDING, claimTtl);
+        return Boolean.TRUE.equals(ok);
+    }
+
+    public void complete(UUID userId, String requestId, UUID generationId) {
+        redisTemplate.opsForValue().set(key(userId, requestId), generationId.toString(), resultTtl);
+    }
+
+    public void release(UUID userId, String requestId) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(key(userId, requestId)), PENDING);
+    }
+
+    private String key(UUID userId, String requestId) {
+        return "idem:generation:" + userId + ":" + requestId;
+    }
+}
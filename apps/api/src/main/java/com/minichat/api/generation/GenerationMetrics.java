@@ -0,0 +1,149 @@
+package com.minichat.api.generation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class GenerationMetrics {
+
+    private static final String OTHER = "other";
+    // Codes the API sets itself plus the ones the inference service sends; anything else upstream reports is "other".
+    private static final Set<String> BUILT_IN_ERROR_CODES = Set.of(
+        "canceled", "client_disconnected", "inference_error", "quota_exceeded", "stream_ended");
+
+    private final MeterRegistry registry;
+    private final Set<String> knownModels;
+    private final Set<String> knownErrorCodes;
+
+    public GenerationMetrics(MeterRegistry registry,
+                             @Value("${app.metrics.known-models}") List<String> knownModels,
+                             @Value("${app.metrics.known-error-codes}") List<String> knownErrorCodes,
+                             @Value("${app.generation.default-model}") String defaultModel) {
+        this.registry = registry;
+        this.knownModels = new HashSet<>(knownModels);
+        this.knownModels.add(defaultModel);
+        this.knownErrorCodes = new HashSet<>(BUILT_IN_ERROR_CODES);
+        this.knownErrorCodes.addAll(knownErrorCodes);
+    }
+
+    public void bindActiveStreams(Map<?, ?> emitters) {
+        Gauge.builder("minichat.generation.streams.active", emitters, Map::size)
+            .description("Streams currently attached to a generation over SSE or WebSocket")
+            .register(registry);
+    }
+
+    public void bindWebSocketConnections(Map<?, ?> connections) {
+        Gauge.builder("minichat.generation.websocket.connections", connections, Map::size)
+            .description("Open multiplexed generation WebSocket connections")
+            .register(registry);
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void recordCreate(String model, long startNanos) {
+        timer("minichat.generation.create", "Latency of generation creation", model).record(elapsed(startNanos), TimeUnit.NANOSECONDS);
+    }
+
+    public void recordQueueWait(String model, long submittedNanos) {
+        timer("minichat.generation.queue.wait", "Time a stream waited for a generation executor thread", model)
+            .record(elapsed(submittedNanos), TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTimeToFirstToken(String model, long streamStartNanos) {
+        timer("minichat.generation.ttft", "Time from stream start to the first delta", model)
+            .record(elapsed(streamStartNanos), TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStream(String model, GenerationStatus status, long streamStartNanos, Integer outputTokens) {
+        long elapsed = elapsed(streamStartNanos);
+        Timer.builder("minichat.generation.stream")
+            .description("Duration of the inference stream loop")
+            .tag("model", modelTag(model))
+            .tag("status", status.value())
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(elapsed, TimeUnit.NANOSECONDS);
+
+        if (outputTokens != null && outputTokens > 0 && elapsed > 0) {
+            DistributionSummary.builder("minichat.generation.tokens.per.second")
+                .description("Output tokens per second of streaming")
+                .tag("model", modelTag(model))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(outputTokens / (elapsed / 1_000_000_000.0));
+        }
+    }
+
+    public void recordPayload(String model, int messages, long chars) {
+        DistributionSummary.builder("minichat.generation.payload.messages")
+            .description("Messages sent to inference per generation, including system and summary messages")
+            .tag("model", modelTag(model))
+            .register(registry)
+            .record(messages);
+        DistributionSummary.builder("minichat.generation.payload.chars")
+            .description("Characters of message content sent to inference per generation")
+            .tag("model", modelTag(model))
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(chars);
+    }
+
+    public void recordFinalize(String model, long startNanos) {
+        timer("minichat.generation.finalize", "Latency of persisting the terminal generation state", model)
+            .record(elapsed(startNanos), TimeUnit.NANOSECONDS);
+    }
+
+    public void recordError(String model, String errorCode) {
+        Counter.builder("minichat.generation.errors")
+            .description("Generations that ended with an error code")
+            .tag("model", modelTag(model))
+            .tag("code", errorCodeTag(errorCode))
+            .register(registry)
+            .increment();
+    }
+
+    public void recordClientDisconnect(String model, long unproducedTokens) {
+        Counter.builder("minichat.generation.client.disconnects")
+            .description("Streams whose client went away before the generation finished")
+            .tag("model", modelTag(model))
+            .register(registry)
+            .increment();
+        Counter.builder("minichat.generation.tokens.saved")
+            .description("Upper bound of output tokens not generated because upstream inference was cancelled on disconnect")
+            .tag("model", modelTag(model))
+            .register(registry)
+            .increment(unproducedTokens);
+    }
+
+    private Timer timer(String name, String description, String model) {
+        return Timer.builder(name)
+            .description(description)
+            .tag("model", modelTag(model))
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private String modelTag(String model) {
+        return model != null && knownModels.contains(model) ? model : OTHER;
+    }
+
+    private String errorCodeTag(String errorCode) {
+        return errorCode != null && knownErrorCodes.contains(errorCode) ? errorCode : OTHER;
+    }
+
+    private long elapsed(long startNanos) {
+        return System.nanoTime() - startNanos;
+    }
+}
@@ -1,10 +1,109 @@
 package com.minichat.api.generation;
 
+import com.minichat.api.common.UuidV7Generator;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface GenerationRepository extends JpaRepository<GenerationEntity, UUID> {
-    Optional<GenerationEntity> findByIdAndUserId(UUID id, UUID userId);
-    Optional<GenerationEntity> findByRequestIdAndUserId(String requestId, UUID userId);
+
+    // created_at is the timestamp of the UUIDv7 id, so every by-id statement also pins created_at and prunes to the
+    // id's month. Rows migrated with random ids only have the whole table as their range.
+    default Optional<GenerationEntity> findByIdAndUserId(UUID id, UUID userId) {
+        return findOwned(id, userId, createdFrom(id), createdTo(id));
+    }
+
+    default int updateStarted(UUID id, UUID userId, String from, String to, Instant startedAt) {
+        return updateStarted(id, userId, createdFrom(id), createdTo(id), from, to, startedAt);
+    }
+
+    default int updateFinished(UUID id,
+                               UUID userId,
+                               String from,
+                               String to,
+                               Integer inputTokens,
+                               Integer outputTokens,
+                               String errorCode,
+                               String errorMessage,
+                               Instant finishedAt) {
+        return updateFinished(id, userId, createdFrom(id), createdTo(id), from, to,
+            inputTokens, outputTokens, errorCode, errorMessage, finishedAt);
+    }
+
+    @Query("""
+        SELECT g FROM GenerationEntity g
+        WHERE g.id = :id
+          AND g.userId = :userId
+          AND g.createdAt BETWEEN :createdFrom AND :createdTo
+        """)
+    Optional<GenerationEntity> findOwned(
+        @Param("id") UUID id,
+        @Param("userId") UUID userId,
+        @Param("createdFrom") Instant createdFrom,
+        @Param("createdTo") Instant createdTo
+    );
+
+    @Modifying
+    @Query("""
+        UPDATE GenerationEntity g
+        SET g.status = :to,
+            g.startedAt = :startedAt,
+            g.errorCode = NULL,
+            g.errorMessage = NULL
+        WHERE g.id = :id
+          AND g.userId = :userId
+          AND g.createdAt BETWEEN :createdFrom AND :createdTo
+          AND g.status = :from
+        """)
+    int updateStarted(
+        @Param("id") UUID id,
+        @Param("userId") UUID userId,
+        @Param("createdFrom") Instant createdFrom,
+        @Param("createdTo") Instant createdTo,
+        @Param("from") String from,
+        @Param("to") String to,
+        @Param("startedAt") Instant startedAt
+    );
+
+    @Modifying
+    @Query("""
+        UPDATE GenerationEntity g
+        SET g.status = :to,
+            g.inputTokens = :inputTokens,
+            g.outputTokens = :outputTokens,
+            g.errorCode = :errorCode,
+            g.errorMessage = :errorMessage,
+            g.finishedAt = :finishedAt
+        WHERE g.id = :id
+          AND g.userId = :userId
+          AND g.createdAt BETWEEN :createdFrom AND :createdTo
+          AND g.status = :from
+        """)
+    int updateFinished(
+        @Param("id") UUID id,
+        @Param("userId") UUID userId,
+        @Param("createdFrom") Instant createdFrom,
+        @Param("createdTo") Instant createdTo,
+        @Param("from") String from,
+        @Param("to") String to,
+        @Param("inputTokens") Integer inputTokens,
+        @Param("outputTokens") Integer outputTokens,
+        @Param("errorCode") String errorCode,
+        @Param("errorMessage") String errorMessage,
+        @Param("finishedAt") Instant finishedAt
+    );
+
+    private static Instant createdFrom(UUID id) {
+        Instant createdAt = UuidV7Generator.timestamp(id);
+        return createdAt != null ? createdAt : Instant.EPOCH;
+    }
+
+    private static Instant createdTo(UUID id) {
+        Instant createdAt = UuidV7Generator.timestamp(id);
+        return createdAt != null ? createdAt : Instant.parse("9999-12-31T00:00:00Z");
+    }
 }
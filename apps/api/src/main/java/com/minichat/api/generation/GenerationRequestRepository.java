@@ -0,0 +1,37 @@
+package com.minichat.api.generation;
+
+import com.minichat.api.common.UuidV7Generator;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+// Client request ids, unique per user. generations cannot carry that constraint because every unique index on it
+// must include the partition key.
+@Repository
+public class GenerationRequestRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GenerationRequestRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<UUID> findGenerationId(UUID userId, String requestId) {
+        List<UUID> rows = jdbcTemplate.queryForList(
+            "SELECT generation_id FROM generation_requests WHERE user_id = ? AND request_id = ?",
+            UUID.class, userId, requestId);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    // Runs in the transaction that inserted the generation; a concurrent insert of the same request id fails on
+    // uq_generation_requests_user_request and rolls that generation back with it.
+    public void insert(UUID userId, String requestId, UUID generationId) {
+        jdbcTemplate.update("""
+            INSERT INTO generation_requests (user_id, request_id, generation_id, created_at)
+            VALUES (?, ?, ?, ?)
+            """, userId, requestId, generationId, Timestamp.from(UuidV7Generator.timestamp(generationId)));
+    }
+}
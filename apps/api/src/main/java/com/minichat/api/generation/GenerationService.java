@@ -1,15 +1,22 @@
 package com.minichat.api.generation;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.minichat.api.archive.ChatArchiveService;
 import com.minichat.api.chat.ChatEntity;
+import com.minichat.api.chat.ChatOwnershipIndex;
 import com.minichat.api.chat.ChatRepository;
 import com.minichat.api.common.ConflictException;
 import com.minichat.api.common.NotFoundException;
+import com.minichat.api.common.TooManyRequestsException;
 import com.minichat.api.event.DomainEventPublisher;
 import com.minichat.api.inference.InferenceClient;
 import com.minichat.api.limit.GenerationLimitService;
+import com.minichat.api.limit.TokenQuotaService;
 import com.minichat.api.message.MessageEntity;
 import com.minichat.api.message.MessageRepository;
+import com.minichat.api.summary.ChatSummarizer;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -20,87 +27,172 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 public class GenerationService {
 
     private final GenerationRepository generationRepository;
+    private final GenerationRequestRepository requestRepository;
     private final ChatRepository chatRepository;
+    private final ChatOwnershipIndex ownershipIndex;
     private final MessageRepository messageRepository;
     private final InferenceClient inferenceClient;
+    private final GenerationStateStore stateStore;
     private final GenerationLimitService limitService;
+    private final TokenQuotaService quotaService;
+    private final GenerationIdempotencyService idempotencyService;
+    private final GenerationMetrics metrics;
+    private final GenerationStreamSupport streamSupport;
     private final DomainEventPublisher eventPublisher;
+    private final ChatSummarizer summarizer;
+    private final ChatArchiveService archiveService;
     private final TaskExecutor generationExecutor;
+    private final TransactionTemplate transactionTemplate;
     private final String defaultModel;
     private final double defaultTemperature;
     private final int defaultMaxTokens;
 
-    private final Map<UUID, SseEmitter> emitters = new ConcurrentHashMap<>();
+    private final Map<UUID, StreamSession> activeStreams = new ConcurrentHashMap<>();
     private final Set<UUID> cancelRequested = ConcurrentHashMap.newKeySet();
 
     public GenerationService(GenerationRepository generationRepository,
+                             GenerationRequestRepository requestRepository,
                              ChatRepository chatRepository,
+                             ChatOwnershipIndex ownershipIndex,
                              MessageRepository messageRepository,
                              InferenceClient inferenceClient,
+                             GenerationStateStore stateStore,
                              GenerationLimitService limitService,
+                             TokenQuotaService quotaService,
+                             GenerationIdempotencyService idempotencyService,
+                             GenerationMetrics metrics,
+                             GenerationStreamSupport streamSupport,
                              DomainEventPublisher eventPublisher,
+                             ChatSummarizer summarizer,
+                             ChatArchiveService archiveService,
                              @Qualifier("generationExecutor") TaskExecutor generationExecutor,
+                             TransactionTemplate transactionTemplate,
                              @Value("${app.generation.default-model}") String defaultModel,
                              @Value("${app.generation.default-temperature}") double defaultTemperature,
                              @Value("${app.generation.default-max-tokens}") int defaultMaxTokens) {
         this.generationRepository = generationRepository;
+        this.requestRepository = requestRepository;
         this.chatRepository = chatRepository;
+        this.ownershipIndex = ownershipIndex;
         this.messageRepository = messageRepository;
         this.inferenceClient = inferenceClient;
+        this.stateStore = stateStore;
         this.limitService = limitService;
+        this.quotaService = quotaService;
+        this.idempotencyService = idempotencyService;
+        this.metrics = metrics;
+        this.streamSupport = streamSupport;
         this.eventPublisher = eventPublisher;
+        this.summarizer = summarizer;
+        this.archiveService = archiveService;
         this.generationExecutor = generationExecutor;
+        this.transactionTemplate = transactionTemplate;
         this.defaultModel = defaultModel;
         this.defaultTemperature = defaultTemperature;
         this.defaultMaxTokens = defaultMaxTokens;
+        metrics.bindActiveStreams(activeStreams);
     }
 
-    @Transactional
     public GenerationDtos.CreateGenerationResponse create(UUID userId, UUID chatId, GenerationDtos.CreateGenerationRequest request) {
-        ChatEntity chat = chatRepository.findByIdAndUserId(chatId, userId)
-            .orElseThrow(() -> new NotFoundException("Chat not found"));
-
-        String requestId = normalizeRequestId(request.requestId());
-        if (requestId != null) {
-            GenerationEntity existing = generationRepository.findByRequestIdAndUserId(requestId, userId).orElse(null);
-            if (existing != null) {
-                return new GenerationDtos.CreateGenerationResponse(existing.getId());
+        long startedAt = metrics.start();
+        try {
+            return createOrReuse(userId, request.requestId(), requestId -> insertGeneration(userId, chatId, request, requestId));
+        } finally {
+            metrics.recordCreate(orDefault(request.model(), defaultModel), startedAt);
+        }
+    }
+
+    public GenerationDtos.CreateGenerationResponse regenerate(UUID userId,
+                                                              UUID chatId,
+                                                              UUID messageId,
+                                                              GenerationDtos.RegenerateGenerationRequest request) {
+        long startedAt = metrics.start();
+        try {
+            return createOrReuse(userId, request.requestId(),
+                requestId -> insertRegeneration(userId, chatId, messageId, request, requestId));
+        } finally {
+            metrics.recordCreate(orDefault(request.model(), defaultModel), startedAt);
+        }
+    }
+
+    private GenerationDtos.CreateGenerationResponse createOrReuse(UUID userId, String rawRequestId, Function<String, UUID> insert) {
+        String requestId = normalizeRequestId(rawRequestId);
+        if (requestId == null) {
+            String generatedRequestId = UUID.randomUUID().toString();
+            return new GenerationDtos.CreateGenerationResponse(
+                transactionTemplate.execute(status -> insert.apply(generatedRequestId)));
+        }
+
+        UUID cached = idempotencyService.findGenerationId(userId, requestId);
+        if (cached != null) {
+            return new GenerationDtos.CreateGenerationResponse(cached);
+        }
+
+        if (!idempotencyService.tryClaim(userId, requestId)) {
+            UUID completed = idempotencyService.findGenerationId(userId, requestId);
+            if (completed != null) {
+                return new GenerationDtos.CreateGenerationResponse(completed);
+            }
+            throw new ConflictException("Generation request is already in progress");
+        }
+
+        UUID generationId;
+        try {
+            generationId = transactionTemplate.execute(status -> requestRepository.findGenerationId(userId, requestId)
+                .orElseGet(() -> {
+                    UUID inserted = insert.apply(requestId);
+                    requestRepository.insert(userId, requestId, inserted);
+                    return inserted;
+                }));
+        } catch (RuntimeException ex) {
+            idempotencyService.release(userId, requestId);
+            throw ex;
+        }
+
+        idempotencyService.complete(userId, requestId, generationId);
+        return new GenerationDtos.CreateGenerationResponse(generationId);
+    }
+
+    private UUID insertGeneration(UUID userId, UUID chatId, GenerationDtos.CreateGenerationRequest request, String requestId) {
+        ownershipIndex.requireOwner(userId, chatId);
+        archiveService.thawIfArchived(chatId);
+
+        UUID parentId = chatRepository.lockActiveLeaf(chatId).orElse(null);
+        if (request.editMessageId() != null) {
+            // An edit is a sibling of the edited message: it shares every ancestor, and the original stays reachable.
+            MessageEntity edited = messageRepository.findByIdAndChatId(request.editMessageId(), chatId)
+                .orElseThrow(() -> new NotFoundException("Message not found"));
+            if (!"user".equals(edited.getRole())) {
+                throw new IllegalArgumentException("Only user messages can be edited");
             }
-        } else {
-            requestId = UUID.randomUUID().toString();
+            parentId = edited.getParentId();
         }
 
         MessageEntity userMessage = new MessageEntity();
         userMessage.setChatId(chatId);
+        userMessage.setUserId(userId);
+        userMessage.setParentId(parentId);
         userMessage.setRole("user");
         userMessage.setContent(request.userMessage().trim());
-        messageRepository.save(userMessage);
+        messageRepository.saveAndFlush(userMessage);
+        messageRepository.assignTokenPrefix(userMessage.getId(), chatId);
 
-        chat.touch();
-        chatRepository.save(chat);
+        chatRepository.advanceLeaf(chatId, userMessage.getId(), Instant.now());
 
-        GenerationEntity generation = new GenerationEntity();
-        generation.setChatId(chatId);
-        generation.setUserId(userId);
-        generation.setStatus(GenerationStatus.QUEUED);
-        generation.setModel(orDefault(request.model(), defaultModel));
-        generation.setSystemPrompt(request.systemPrompt());
-        generation.setTemperature(request.temperature() == null ? defaultTemperature : request.temperature());
-        generation.setMaxTokens(request.maxTokens() == null ? defaultMaxTokens : request.maxTokens());
-        generation.setRequestId(requestId);
-
-        GenerationEntity saved = generationRepository.save(generation);
+        GenerationEntity saved = saveQueued(userId, chatId, userMessage.getId(), request.model(), request.systemPrompt(),
+            request.temperature(), request.maxTokens(), requestId);
 
         eventPublisher.publishAudit(userId, "create_generation", Map.of(
             "generationId", saved.getId().toString(),
@@ -108,25 +200,69 @@ public class GenerationService {
             "requestId", requestId
         ));
 
-        return new GenerationDtos.CreateGenerationResponse(saved.getId());
+        return saved.getId();
     }
 
-    @Transactional
-    public GenerationDtos.CancelGenerationResponse cancel(UUID userId, UUID generationId) {
-        GenerationEntity generation = loadOwned(generationId, userId);
-        GenerationStatus status = generation.getStatus();
-
-        if (status == GenerationStatus.SUCCEEDED || status == GenerationStatus.FAILED || status == GenerationStatus.CANCELED) {
-            return new GenerationDtos.CancelGenerationResponse("accepted");
+    private UUID insertRegeneration(UUID userId,
+                                    UUID chatId,
+                                    UUID messageId,
+                                    GenerationDtos.RegenerateGenerationRequest request,
+                                    String requestId) {
+        ownershipIndex.requireOwner(userId, chatId);
+        archiveService.thawIfArchived(chatId);
+
+        chatRepository.lockActiveLeaf(chatId);
+        MessageEntity target = messageRepository.findByIdAndChatId(messageId, chatId)
+            .orElseThrow(() -> new NotFoundException("Message not found"));
+        // Regenerating a reply answers its parent again; regenerating from a user message answers that message.
+        // The new reply becomes a sibling of the old one once it is persisted.
+        UUID anchorId = "assistant".equals(target.getRole()) ? target.getParentId() : target.getId();
+        if (anchorId == null) {
+            throw new IllegalArgumentException("Message has no prompt to regenerate from");
         }
+        chatRepository.advanceLeaf(chatId, anchorId, Instant.now());
+
+        GenerationEntity saved = saveQueued(userId, chatId, anchorId, request.model(), request.systemPrompt(),
+            request.temperature(), request.maxTokens(), requestId);
+
+        eventPublisher.publishAudit(userId, "regenerate_generation", Map.of(
+            "generationId", saved.getId().toString(),
+            "chatId", chatId.toString(),
+            "messageId", messageId.toString(),
+            "requestId", requestId
+        ));
+
+        return saved.getId();
+    }
 
-        if (status == GenerationStatus.QUEUED) {
-            generation.setStatus(GenerationStatus.CANCELED);
-            generation.setErrorCode("canceled");
-            generation.setErrorMessage("Canceled before stream");
-            generation.setFinishedAt(Instant.now());
-            generationRepository.save(generation);
-        } else {
+    private GenerationEntity saveQueued(UUID userId,
+                                        UUID chatId,
+                                        UUID parentMessageId,
+                                        String model,
+                                        String systemPrompt,
+                                        Double temperature,
+                                        Integer maxTokens,
+                                        String requestId) {
+        GenerationEntity generation = new GenerationEntity();
+        generation.setChatId(chatId);
+        generation.setUserId(userId);
+        generation.setParentMessageId(parentMessageId);
+        generation.setStatus(GenerationStatus.QUEUED);
+        generation.setModel(orDefault(model, defaultModel));
+        generation.setSystemPrompt(systemPrompt);
+        generation.setTemperature(temperature == null ? defaultTemperature : temperature);
+        generation.setMaxTokens(maxTokens == null ? defaultMaxTokens : maxTokens);
+        generation.setRequestId(requestId);
+        // Flushed so that the generation_requests row written next in this transaction can reference it.
+        return generationRepository.saveAndFlush(generation);
+    }
+
+    public GenerationDtos.CancelGenerationResponse cancel(UUID userId, UUID generationId) {
+        if (!stateStore.cancelQueued(generationId, userId, "Canceled before stream")) {
+            GenerationStatus status = loadOwned(generationId, userId).getStatus();
+            if (status.isTerminal()) {
+                return new GenerationDtos.CancelGenerationResponse("accepted");
+            }
             cancelRequested.add(generationId);
             inferenceClient.cancelGeneration(generationId);
         }
@@ -135,52 +271,104 @@ public class GenerationService {
         return new GenerationDtos.CancelGenerationResponse("accepted");
     }
 
-    @Transactional
     public SseEmitter stream(UUID userId, UUID generationId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        StreamSession session = startStream(userId, generationId, new SseStreamTransport(emitter));
+        // Completion before finalizeStream has run means the container gave up on the client.
+        emitter.onCompletion(session::markClientGone);
+        emitter.onError(ex -> session.markClientGone());
+        return emitter;
+    }
+
+    StreamSession startStream(UUID userId, UUID generationId, StreamTransport transport) {
         GenerationEntity generation = loadOwned(generationId, userId);
         if (generation.getStatus() != GenerationStatus.QUEUED) {
             throw new ConflictException("Generation is not in queued state");
         }
 
         limitService.enforceQps(userId);
+        long tokenBudget = quotaService.requireRemaining(userId);
         if (!limitService.tryAcquireInflight(userId, generationId)) {
             throw new ConflictException("Only one in-flight generation is allowed per user");
         }
 
-        generation.setStatus(GenerationStatus.STREAMING);
-        generation.setStartedAt(Instant.now());
-        generation.setErrorCode(null);
-        generation.setErrorMessage(null);
-        generationRepository.save(generation);
+        if (!stateStore.markStreaming(generationId, userId, Instant.now())) {
+            limitService.releaseInflight(userId, generationId);
+            throw new ConflictException("Generation is not in queued state");
+        }
 
-        SseEmitter emitter = new SseEmitter(0L);
-        emitters.put(generationId, emitter);
-        emitter.onCompletion(() -> emitters.remove(generationId));
-        emitter.onTimeout(() -> emitters.remove(generationId));
+        StreamSession session = new StreamSession(generationId, inferenceClient::cancelGenerationAsync);
+        activeStreams.put(generationId, session);
+        streamSupport.startHeartbeat(transport, session);
 
-        generationExecutor.execute(() -> runStreamLoop(userId, generationId, emitter));
-        return emitter;
+        long submittedAt = metrics.start();
+        generationExecutor.execute(() -> {
+            metrics.recordQueueWait(generation.getModel(), submittedAt);
+            runStreamLoop(generation, transport, session, tokenBudget);
+        });
+        return session;
     }
 
-    private void runStreamLoop(UUID userId, UUID generationId, SseEmitter emitter) {
+    private void runStreamLoop(GenerationEntity generation, StreamTransport transport, StreamSession session, long tokenBudget) {
         StringBuilder assistantText = new StringBuilder();
         AtomicReference<Integer> inputTokens = new AtomicReference<>(null);
         AtomicReference<Integer> outputTokens = new AtomicReference<>(null);
         AtomicReference<String> errorCode = new AtomicReference<>(null);
         AtomicReference<String> errorMessage = new AtomicReference<>(null);
         AtomicBoolean doneReceived = new AtomicBoolean(false);
+        AtomicBoolean firstDelta = new AtomicBoolean(true);
+        long streamStartedAt = metrics.start();
+        long estimatedInputTokens = 0;
+        boolean inferenceStarted = false;
+        SseDeltaCoalescer coalescer = streamSupport.openCoalescer(new SseDeltaCoalescer.Sink() {
+            @Override
+            public void delta(String text) throws IOException {
+                try {
+                    transport.delta(text);
+                } catch (IOException | IllegalStateException ex) {
+                    session.markClientGone();
+                    throw ex;
+                }
+            }
+
+            @Override
+            public void event(JsonNode event) throws IOException {
+                try {
+                    transport.event(event);
+                } catch (IOException | IllegalStateException ex) {
+                    session.markClientGone();
+                    throw ex;
+                }
+            }
+        });
 
         try {
-            GenerationEntity generation = loadOwned(generationId, userId);
             InferenceClient.GenerateRequest payload = buildInferencePayload(generation);
+            estimatedInputTokens = estimateInputTokens(generation.getModel(), payload);
+            long outputBudget = tokenBudget - estimatedInputTokens;
+            // The prompt alone would use up what is left: fail without spending upstream tokens on it.
+            if (outputBudget <= 0) {
+                quotaService.recordStartRejection();
+                reportQuotaExceeded(errorCode, errorMessage, coalescer);
+                return;
+            }
 
-            inferenceClient.streamGenerate(payload, event -> {
+            inferenceStarted = true;
+            inferenceClient.streamGenerate(payload, session::attachUpstream, event -> {
                 String type = event.path("type").asText();
                 if ("delta".equals(type)) {
-                    assistantText.append(event.path("delta").asText(""));
+                    if (firstDelta.compareAndSet(true, false)) {
+                        metrics.recordTimeToFirstToken(generation.getModel(), streamStartedAt);
+                    }
+                    String delta = event.path("delta").asText("");
+                    if (quotaService.estimateTokens(assistantText.length() + delta.length()) > outputBudget) {
+                        cutOffForQuota(generation.getId(), errorCode, errorMessage, coalescer);
+                    }
+                    assistantText.append(delta);
                 } else if ("usage".equals(type)) {
                     inputTokens.set(event.path("inputTokens").asInt(0));
                     outputTokens.set(event.path("outputTokens").asInt(0));
+                    quotaService.charge(generation.getUserId(), (long) inputTokens.get() + outputTokens.get());
                 } else if ("error".equals(type)) {
                     errorCode.set(event.path("code").asText("inference_error"));
                     errorMessage.set(event.path("message").asText("Inference error"));
@@ -188,35 +376,47 @@ public class GenerationService {
                     doneReceived.set(true);
                 }
 
-                sendEvent(emitter, event);
+                sendEvent(coalescer, event, "delta".equals(type));
             });
         } catch (Exception ex) {
-            if (errorCode.get() == null) {
+            if (errorCode.get() == null && session.isClientGone()) {
+                errorCode.set("client_disconnected");
+                errorMessage.set("Client disconnected");
+            } else if (errorCode.get() == null) {
                 errorCode.set("inference_error");
                 errorMessage.set(ex.getMessage() == null ? "Inference stream failed" : ex.getMessage());
             }
         } finally {
-            finalizeStream(userId, generationId, assistantText.toString(), inputTokens.get(), outputTokens.get(),
-                errorCode.get(), errorMessage.get(), doneReceived.get(), emitter);
+            coalescer.close();
+            if (inferenceStarted && outputTokens.get() == null
+                && (!assistantText.isEmpty() || "quota_exceeded".equals(errorCode.get()))) {
+                // No usage event arrived (failure or quota cut-off): charge the estimate instead. A cut-off before
+                // the first delta still consumed the prompt upstream.
+                quotaService.charge(generation.getUserId(), estimatedInputTokens + quotaService.estimateTokens(assistantText.length()));
+            }
+            finalizeStream(generation, assistantText.toString(), inputTokens.get(), outputTokens.get(),
+                errorCode.get(), errorMessage.get(), doneReceived.get(), streamStartedAt, transport, session);
         }
     }
 
-    @Transactional
-    protected void finalizeStream(UUID userId,
-                                  UUID generationId,
-                                  String assistantText,
-                                  Integer inputTokens,
-                                  Integer outputTokens,
-                                  String errorCode,
-                                  String errorMessage,
-                                  boolean doneReceived,
-                                  SseEmitter emitter) {
+    private void finalizeStream(GenerationEntity generation,
+                                String assistantText,
+                                Integer inputTokens,
+                                Integer outputTokens,
+                                String errorCode,
+                                String errorMessage,
+                                boolean doneReceived,
+                                long streamStartedAt,
+                                StreamTransport transport,
+                                StreamSession session) {
+        UUID generationId = generation.getId();
         try {
-            GenerationEntity generation = loadOwned(generationId, userId);
-            boolean canceled = cancelRequested.remove(generationId) || "canceled".equals(errorCode);
+            boolean canceled = cancelRequested.remove(generationId) || "canceled".equals(errorCode)
+                || "client_disconnected".equals(errorCode);
+            GenerationStatus target;
 
             if (canceled) {
-                generation.setStatus(GenerationStatus.CANCELED);
+                target = GenerationStatus.CANCELED;
                 if (errorCode == null) {
                     errorCode = "canceled";
                 }
@@ -224,48 +424,91 @@ public class GenerationService {
                     errorMessage = "Canceled by user";
                 }
             } else if (errorCode != null) {
-                generation.setStatus(GenerationStatus.FAILED);
+                target = GenerationStatus.FAILED;
             } else if (doneReceived) {
-                generation.setStatus(GenerationStatus.SUCCEEDED);
+                target = GenerationStatus.SUCCEEDED;
             } else {
-                generation.setStatus(GenerationStatus.FAILED);
+                target = GenerationStatus.FAILED;
                 errorCode = "stream_ended";
                 errorMessage = "Stream ended before done event";
             }
 
-            generation.setInputTokens(inputTokens);
-            generation.setOutputTokens(outputTokens);
-            generation.setErrorCode(errorCode);
-            generation.setErrorMessage(errorMessage);
-            generation.setFinishedAt(Instant.now());
-            generationRepository.save(generation);
-
-            if (!assistantText.isBlank() && (generation.getStatus() == GenerationStatus.SUCCEEDED || generation.getStatus() == GenerationStatus.CANCELED)) {
-                appendAssistantMessage(generation.getChatId(), assistantText);
+            metrics.recordStream(generation.getModel(), target, streamStartedAt, outputTokens);
+            if (errorCode != null) {
+                metrics.recordError(generation.getModel(), errorCode);
+            }
+            if ("client_disconnected".equals(errorCode)) {
+                long produced = quotaService.estimateTokens(assistantText.length());
+                long unproduced = generation.getMaxTokens() == null ? 0 : Math.max(0, generation.getMaxTokens() - produced);
+                metrics.recordClientDisconnect(generation.getModel(), unproduced);
             }
 
-            if (generation.getStatus() == GenerationStatus.SUCCEEDED && inputTokens != null && outputTokens != null) {
-                eventPublisher.publishUsage(userId, generationId, inputTokens, outputTokens, generation.getModel());
+            long finalizeStartedAt = metrics.start();
+            boolean finished = stateStore.finishStream(generation, target, assistantText, inputTokens, outputTokens,
+                errorCode, errorMessage);
+            metrics.recordFinalize(generation.getModel(), finalizeStartedAt);
+            if (finished && target == GenerationStatus.SUCCEEDED) {
+                summarizer.schedule(generation.getChatId());
             }
 
-            if (!doneReceived) {
-                sendDone(emitter);
+            if (!doneReceived && !session.isClientGone()) {
+                sendDone(transport);
             }
         } finally {
-            emitters.remove(generationId);
-            limitService.releaseInflight(userId, generationId);
-            emitter.complete();
+            session.finish();
+            activeStreams.remove(generationId);
+            limitService.releaseInflight(generation.getUserId(), generationId);
+            transport.close();
+        }
+    }
+
+    private void cutOffForQuota(UUID generationId,
+                                AtomicReference<String> errorCode,
+                                AtomicReference<String> errorMessage,
+                                SseDeltaCoalescer coalescer) {
+        quotaService.recordCutoff();
+        inferenceClient.cancelGeneration(generationId);
+        reportQuotaExceeded(errorCode, errorMessage, coalescer);
+        throw new TooManyRequestsException("Daily token quota exceeded");
+    }
+
+    private void reportQuotaExceeded(AtomicReference<String> errorCode,
+                                     AtomicReference<String> errorMessage,
+                                     SseDeltaCoalescer coalescer) {
+        errorCode.set("quota_exceeded");
+        errorMessage.set("Daily token quota exceeded");
+        try {
+            ObjectNode event = JsonNodeFactory.instance.objectNode();
+            event.put("type", "error");
+            event.put("code", "quota_exceeded");
+            event.put("message", "Daily token quota exceeded");
+            coalescer.event(event);
+        } catch (IOException ignored) {
+            // Client may have already disconnected.
         }
     }
 
+    private long estimateInputTokens(String model, InferenceClient.GenerateRequest payload) {
+        long chars = 0;
+        for (InferenceClient.GenerateMessage message : payload.messages()) {
+            chars += message.content() == null ? 0 : message.content().length();
+        }
+        metrics.recordPayload(model, payload.messages().size(), chars);
+        return quotaService.estimateTokens(chars);
+    }
+
     private InferenceClient.GenerateRequest buildInferencePayload(GenerationEntity generation) {
         List<InferenceClient.GenerateMessage> messages = new ArrayList<>();
         if (generation.getSystemPrompt() != null && !generation.getSystemPrompt().isBlank()) {
             messages.add(new InferenceClient.GenerateMessage("system", generation.getSystemPrompt()));
         }
 
-        for (MessageEntity message : messageRepository.findHistoryByChatId(generation.getChatId())) {
-            messages.add(new InferenceClient.GenerateMessage(message.getRole(), message.getContent()));
+        UUID leafId = generation.getParentMessageId();
+        if (leafId == null) {
+            leafId = chatRepository.findById(generation.getChatId()).map(ChatEntity::getActiveLeafId).orElse(null);
+        }
+        if (leafId != null) {
+            messages.addAll(summarizer.promptMessages(generation.getChatId(), leafId));
         }
 
         return new InferenceClient.GenerateRequest(
@@ -278,30 +521,21 @@ public class GenerationService {
         );
     }
 
-    private void appendAssistantMessage(UUID chatId, String content) {
-        MessageEntity assistant = new MessageEntity();
-        assistant.setChatId(chatId);
-        assistant.setRole("assistant");
-        assistant.setContent(content);
-        messageRepository.save(assistant);
-
-        chatRepository.findById(chatId).ifPresent(chat -> {
-            chat.touch();
-            chatRepository.save(chat);
-        });
-    }
-
-    private void sendEvent(SseEmitter emitter, JsonNode event) {
+    private void sendEvent(SseDeltaCoalescer coalescer, JsonNode event, boolean delta) {
         try {
-            emitter.send(SseEmitter.event().data(event.toString()));
+            if (delta) {
+                coalescer.delta(event.path("delta").asText(""));
+            } else {
+                coalescer.event(event);
+            }
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
     }
 
-    private void sendDone(SseEmitter emitter) {
+    private void sendDone(StreamTransport transport) {
         try {
-            emitter.send(SseEmitter.event().data("{\"type\":\"done\"}"));
+            transport.event(JsonNodeFactory.instance.objectNode().put("type", "done"));
         } catch (IOException ignored) {
             // Client may have already disconnected.
         }
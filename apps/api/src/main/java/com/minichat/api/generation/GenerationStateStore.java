@@ -0,0 +1,99 @@
+package com.minichat.api.generation;
+
+import com.minichat.api.chat.ChatRepository;
+import com.minichat.api.datasource.ReadYourWritesTracker;
+import com.minichat.api.event.DomainEventPublisher;
+import com.minichat.api.message.MessageEntity;
+import com.minichat.api.message.MessageRepository;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class GenerationStateStore {
+
+    private final GenerationRepository generationRepository;
+    private final ChatRepository chatRepository;
+    private final MessageRepository messageRepository;
+    private final DomainEventPublisher eventPublisher;
+    private final ReadYourWritesTracker writesTracker;
+
+    public GenerationStateStore(GenerationRepository generationRepository,
+                                ChatRepository chatRepository,
+                                MessageRepository messageRepository,
+                                DomainEventPublisher eventPublisher,
+                                ReadYourWritesTracker writesTracker) {
+        this.generationRepository = generationRepository;
+        this.chatRepository = chatRepository;
+        this.messageRepository = messageRepository;
+        this.eventPublisher = eventPublisher;
+        this.writesTracker = writesTracker;
+    }
+
+    @Transactional
+    public boolean markStreaming(UUID generationId, UUID userId, Instant startedAt) {
+        requireLegal(GenerationStatus.QUEUED, GenerationStatus.STREAMING);
+        return generationRepository.updateStarted(generationId, userId,
+            GenerationStatus.QUEUED.value(), GenerationStatus.STREAMING.value(), startedAt) == 1;
+    }
+
+    @Transactional
+    public boolean cancelQueued(UUID generationId, UUID userId, String errorMessage) {
+        return finish(generationId, userId, GenerationStatus.QUEUED, GenerationStatus.CANCELED,
+            null, null, "canceled", errorMessage);
+    }
+
+    @Transactional
+    public boolean finishStream(GenerationEntity generation,
+                                GenerationStatus target,
+                                String assistantText,
+                                Integer inputTokens,
+                                Integer outputTokens,
+                                String errorCode,
+                                String errorMessage) {
+        if (!finish(generation.getId(), generation.getUserId(), GenerationStatus.STREAMING, target,
+            inputTokens, outputTokens, errorCode, errorMessage)) {
+            return false;
+        }
+
+        if (!assistantText.isBlank() && (target == GenerationStatus.SUCCEEDED || target == GenerationStatus.CANCELED)) {
+            UUID leafId = chatRepository.lockActiveLeaf(generation.getChatId()).orElse(null);
+            MessageEntity assistant = new MessageEntity();
+            assistant.setChatId(generation.getChatId());
+            assistant.setUserId(generation.getUserId());
+            // Generations created before message trees have no parent pointer and reply to whatever is active.
+            assistant.setParentId(generation.getParentMessageId() != null ? generation.getParentMessageId() : leafId);
+            assistant.setRole("assistant");
+            assistant.setContent(assistantText);
+            messageRepository.saveAndFlush(assistant);
+            messageRepository.assignTokenPrefix(assistant.getId(), generation.getChatId());
+            chatRepository.advanceLeaf(generation.getChatId(), assistant.getId(), Instant.now());
+        }
+
+        if (target == GenerationStatus.SUCCEEDED && inputTokens != null && outputTokens != null) {
+            eventPublisher.publishUsage(generation.getUserId(), generation.getId(), inputTokens, outputTokens, generation.getModel());
+        }
+        writesTracker.markWrite(generation.getUserId());
+        return true;
+    }
+
+    private boolean finish(UUID generationId,
+                           UUID userId,
+                           GenerationStatus from,
+                           GenerationStatus to,
+                           Integer inputTokens,
+                           Integer outputTokens,
+                           String errorCode,
+                           String errorMessage) {
+        requireLegal(from, to);
+        return generationRepository.updateFinished(generationId, userId, from.value(), to.value(),
+            inputTokens, outputTokens, errorCode, errorMessage, Instant.now()) == 1;
+    }
+
+    private void requireLegal(GenerationStatus from, GenerationStatus to) {
+        if (!from.canTransitionTo(to)) {
+            throw new IllegalStateException("Illegal generation transition: " + from.value() + " -> " + to.value());
+        }
+    }
+}
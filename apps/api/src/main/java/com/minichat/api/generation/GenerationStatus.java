@@ -17,6 +17,18 @@ public enum GenerationStatus {
         return value;
     }
 
+    public boolean isTerminal() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELED;
+    }
+
+    public boolean canTransitionTo(GenerationStatus target) {
+        return switch (this) {
+            case QUEUED -> target == STREAMING || target == FAILED || target == CANCELED;
+            case STREAMING -> target.isTerminal();
+            default -> false;
+        };
+    }
+
     public static GenerationStatus fromValue(String value) {
         for (GenerationStatus status : values()) {
             if (status.value.equals(value)) {
@@ -0,0 +1,51 @@
+package com.minichat.api.generation;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class GenerationStreamSupport {
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final long maxDelayMs;
+    private final int maxChars;
+    private final long heartbeatMs;
+
+    public GenerationStreamSupport(@Value("${app.generation.sse.coalesce-ms}") long maxDelayMs,
+                                   @Value("${app.generation.sse.coalesce-max-chars}") int maxChars,
+                                   @Value("${app.generation.sse.heartbeat-ms}") long heartbeatMs,
+                                   @Value("${app.generation.sse.scheduler-threads}") int schedulerThreads) {
+        this.maxDelayMs = maxDelayMs;
+        this.maxChars = maxChars;
+        this.heartbeatMs = heartbeatMs;
+        this.scheduler = new ScheduledThreadPoolExecutor(schedulerThreads, new CustomizableThreadFactory("stream-"));
+        // Most timers are cancelled by a size- or event-triggered flush; drop them from the queue right away.
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    public SseDeltaCoalescer openCoalescer(SseDeltaCoalescer.Sink sink) {
+        return new SseDeltaCoalescer(sink, scheduler, maxDelayMs, maxChars);
+    }
+
+    void startHeartbeat(StreamTransport transport, StreamSession session) {
+        if (heartbeatMs <= 0) {
+            return;
+        }
+        session.attachHeartbeat(scheduler.scheduleAtFixedRate(() -> {
+            try {
+                transport.heartbeat();
+            } catch (Exception ex) {
+                session.markClientGone();
+            }
+        }, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
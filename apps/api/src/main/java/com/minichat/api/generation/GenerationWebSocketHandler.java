@@ -0,0 +1,208 @@
+package com.minichat.api.generation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minichat.api.auth.JwtUserPrincipal;
+import com.minichat.api.common.ApiExceptionHandler;
+import com.minichat.api.common.ConflictException;
+import com.minichat.api.common.NotFoundException;
+import com.minichat.api.common.TooManyRequestsException;
+import com.minichat.api.common.UnauthorizedException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+@Component
+public class GenerationWebSocketHandler extends BinaryWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationWebSocketHandler.class);
+    private static final String CONNECTION_ATTRIBUTE = GenerationWebSocketHandler.class.getName() + ".connection";
+
+    private final GenerationService generationService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int sendTimeLimitMs;
+    private final int sendBufferBytes;
+
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    public GenerationWebSocketHandler(GenerationService generationService,
+                                      ObjectMapper objectMapper,
+                                      Validator validator,
+                                      GenerationMetrics metrics,
+                                      @Value("${app.generation.ws.send-time-limit-ms}") int sendTimeLimitMs,
+                                      @Value("${app.generation.ws.send-buffer-bytes}") int sendBufferBytes) {
+        this.generationService = generationService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferBytes = sendBufferBytes;
+        metrics.bindWebSocketConnections(connections);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        if (!(session.getPrincipal() instanceof Authentication authentication)
+            || !(authentication.getPrincipal() instanceof JwtUserPrincipal)) {
+            session.close(CloseStatus.POLICY_VIOLATION);
+            return;
+        }
+        // A slow reader overflows the send buffer and the session is closed, which cancels its streams.
+        Connection connection = new Connection(authentication,
+            new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, sendBufferBytes));
+        session.getAttributes().put(CONNECTION_ATTRIBUTE, connection);
+        connections.put(session.getId(), connection);
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        Connection connection = (Connection) session.getAttributes().get(CONNECTION_ATTRIBUTE);
+        if (connection == null) {
+            return;
+        }
+        ByteBuffer frame = message.getPayload();
+        if (frame.remaining() < GenerationFrames.HEADER_BYTES) {
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+        byte op = frame.get();
+        int tag = frame.getInt();
+
+        // Service calls expect the authenticated user on the thread, as they do behind the HTTP filter chain.
+        SecurityContextHolder.getContext().setAuthentication(connection.authentication);
+        try {
+            switch (op) {
+                case GenerationFrames.CREATE -> create(connection, tag, frame);
+                case GenerationFrames.STREAM -> stream(connection, tag, frame);
+                case GenerationFrames.CANCEL -> cancel(connection, tag, frame);
+                default -> throw new IllegalArgumentException("Unknown opcode " + (op & 0xFF));
+            }
+        } catch (RuntimeException | IOException ex) {
+            HttpStatus status = statusOf(ex);
+            if (status.is5xxServerError()) {
+                log.warn("WebSocket generation request failed", ex);
+            }
+            String detail = ex.getMessage() == null ? status.getReasonPhrase() : ex.getMessage();
+            connection.send(GenerationFrames.requestError(tag, status.value(), detail));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws IOException {
+        if (session.isOpen()) {
+            session.close(CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Connection connection = connections.remove(session.getId());
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    private void create(Connection connection, int tag, ByteBuffer frame) throws IOException {
+        UUID chatId = GenerationFrames.readUuid(frame);
+        byte[] body = new byte[frame.remaining()];
+        frame.get(body);
+        GenerationDtos.CreateGenerationRequest request = objectMapper.readValue(body, GenerationDtos.CreateGenerationRequest.class);
+        Set<ConstraintViolation<GenerationDtos.CreateGenerationRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        GenerationDtos.CreateGenerationResponse response = generationService.create(connection.userId(), chatId, request);
+        connection.send(GenerationFrames.created(tag, response.generationId()));
+    }
+
+    private void stream(Connection connection, int tag, ByteBuffer frame) throws IOException {
+        UUID generationId = GenerationFrames.readUuid(frame);
+        WebSocketStreamTransport transport = new WebSocketStreamTransport(connection.session, tag, () -> connection.streams.remove(tag));
+        if (connection.streams.putIfAbsent(tag, transport) != null) {
+            throw new ConflictException("Stream tag is already in use on this connection");
+        }
+
+        StreamSession streamSession;
+        try {
+            streamSession = generationService.startStream(connection.userId(), generationId, transport);
+        } catch (RuntimeException ex) {
+            connection.streams.remove(tag, transport);
+            throw ex;
+        }
+        transport.attach(streamSession);
+        transport.start();
+    }
+
+    private void cancel(Connection connection, int tag, ByteBuffer frame) throws IOException {
+        UUID generationId = GenerationFrames.readUuid(frame);
+        generationService.cancel(connection.userId(), generationId);
+        connection.send(GenerationFrames.tagOnly(GenerationFrames.CANCELED, tag));
+    }
+
+    private HttpStatus statusOf(Exception ex) {
+        if (ex instanceof NotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (ex instanceof ConflictException
+            || ex instanceof DataIntegrityViolationException && ApiExceptionHandler.violates(ex, ApiExceptionHandler.REQUEST_ID_CONSTRAINT)) {
+            return HttpStatus.CONFLICT;
+        }
+        if (ex instanceof UnauthorizedException) {
+            return HttpStatus.UNAUTHORIZED;
+        }
+        if (ex instanceof TooManyRequestsException) {
+            return HttpStatus.TOO_MANY_REQUESTS;
+        }
+        if (ex instanceof IllegalArgumentException || ex instanceof ConstraintViolationException || ex instanceof IOException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    private static final class Connection {
+
+        private final Authentication authentication;
+        private final WebSocketSession session;
+        private final Map<Integer, WebSocketStreamTransport> streams = new ConcurrentHashMap<>();
+
+        private Connection(Authentication authentication, WebSocketSession session) {
+            this.authentication = authentication;
+            this.session = session;
+        }
+
+        private UUID userId() {
+            return ((JwtUserPrincipal) authentication.getPrincipal()).userId();
+        }
+
+        private void send(ByteBuffer frame) throws IOException {
+            if (session.isOpen()) {
+                session.sendMessage(new BinaryMessage(frame));
+            }
+        }
+
+        private void close() {
+            streams.values().forEach(WebSocketStreamTransport::clientGone);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.minichat.api.generation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class SseDeltaCoalescer implements AutoCloseable {
+
+    public interface Sink {
+        void delta(String text) throws IOException;
+
+        void event(JsonNode event) throws IOException;
+    }
+
+    private final Sink sink;
+    private final ScheduledExecutorService scheduler;
+    private final long maxDelayMs;
+    private final int maxChars;
+
+    private final StringBuilder pending = new StringBuilder();
+    private ScheduledFuture<?> scheduledFlush;
+    private long batch;
+    private IOException failure;
+
+    public SseDeltaCoalescer(Sink sink, ScheduledExecutorService scheduler, long maxDelayMs, int maxChars) {
+        this.sink = sink;
+        this.scheduler = scheduler;
+        this.maxDelayMs = maxDelayMs;
+        this.maxChars = maxChars;
+    }
+
+    public synchronized void delta(String text) throws IOException {
+        checkFailure();
+        if (maxDelayMs <= 0) {
+            sink.delta(text);
+            return;
+        }
+
+        pending.append(text);
+        if (pending.length() >= maxChars) {
+            flushPending();
+        } else if (scheduledFlush == null) {
+            long scheduledBatch = batch;
+            scheduledFlush = scheduler.schedule(() -> timedFlush(scheduledBatch), maxDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void event(JsonNode event) throws IOException {
+        checkFailure();
+        flushPending();
+        sink.event(event);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (failure == null) {
+                flushPending();
+            }
+        } catch (IOException ignored) {
+            // Client may have already disconnected.
+        } finally {
+            cancelScheduledFlush();
+        }
+    }
+
+    private synchronized void timedFlush(long scheduledBatch) {
+        // A size- or event-triggered flush may have raced this timer and already started a new batch.
+        if (scheduledBatch != batch || failure != null) {
+            return;
+        }
+        scheduledFlush = null;
+        try {
+            flushPending();
+        } catch (IOException ex) {
+            failure = ex;
+        }
+    }
+
+    private void flushPending() throws IOException {
+        cancelScheduledFlush();
+        batch++;
+        if (pending.isEmpty()) {
+            return;
+        }
+        String text = pending.toString();
+        pending.setLength(0);
+        sink.delta(text);
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.minichat.api.generation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class SseStreamTransport implements StreamTransport {
+
+    private final SseEmitter emitter;
+
+    SseStreamTransport(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void delta(String text) throws IOException {
+        ObjectNode event = JsonNodeFactory.instance.objectNode();
+        event.put("type", "delta");
+        event.put("delta", text);
+        emitter.send(SseEmitter.event().data(event.toString()));
+    }
+
+    @Override
+    public void event(JsonNode event) throws IOException {
+        emitter.send(SseEmitter.event().data(event.toString()));
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment("ping"));
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+}
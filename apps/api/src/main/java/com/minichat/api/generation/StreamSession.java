@@ -0,0 +1,73 @@
+package com.minichat.api.generation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+class StreamSession {
+
+    private final UUID generationId;
+    private final Consumer<UUID> onClientGone;
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private final AtomicBoolean clientGone = new AtomicBoolean();
+    private volatile Closeable upstream;
+    private volatile ScheduledFuture<?> heartbeat;
+
+    StreamSession(UUID generationId, Consumer<UUID> onClientGone) {
+        this.generationId = generationId;
+        this.onClientGone = onClientGone;
+    }
+
+    void attachUpstream(Closeable upstream) {
+        this.upstream = upstream;
+        if (clientGone.get()) {
+            closeQuietly(upstream);
+        }
+    }
+
+    void attachHeartbeat(ScheduledFuture<?> heartbeat) {
+        this.heartbeat = heartbeat;
+        if (finished.get() || clientGone.get()) {
+            heartbeat.cancel(false);
+        }
+    }
+
+    boolean isClientGone() {
+        return clientGone.get();
+    }
+
+    void markClientGone() {
+        if (finished.get() || !clientGone.compareAndSet(false, true)) {
+            return;
+        }
+        cancelHeartbeat();
+        onClientGone.accept(generationId);
+        closeQuietly(upstream);
+    }
+
+    void finish() {
+        finished.set(true);
+        cancelHeartbeat();
+    }
+
+    private void cancelHeartbeat() {
+        ScheduledFuture<?> current = heartbeat;
+        if (current != null) {
+            current.cancel(false);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // The stream loop sees the closed body and winds down on its own.
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.minichat.api.generation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+
+public interface StreamTransport {
+
+    void delta(String text) throws IOException;
+
+    void event(JsonNode event) throws IOException;
+
+    void heartbeat() throws IOException;
+
+    void close();
+}
@@ -0,0 +1,97 @@
+package com.minichat.api.generation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+class WebSocketStreamTransport implements StreamTransport {
+
+    private final WebSocketSession session;
+    private final int tag;
+    private final Runnable onClose;
+    private volatile StreamSession streamSession;
+    private volatile boolean clientGone;
+    private boolean started;
+    private boolean closed;
+
+    WebSocketStreamTransport(WebSocketSession session, int tag, Runnable onClose) {
+        this.session = session;
+        this.tag = tag;
+        this.onClose = onClose;
+    }
+
+    void attach(StreamSession streamSession) {
+        this.streamSession = streamSession;
+        if (clientGone) {
+            streamSession.markClientGone();
+        }
+    }
+
+    void clientGone() {
+        clientGone = true;
+        StreamSession current = streamSession;
+        if (current != null) {
+            current.markClientGone();
+        }
+    }
+
+    // The stream loop may emit before the handler acknowledges admission; STARTED always goes out first.
+    synchronized void start() throws IOException {
+        if (!started) {
+            started = true;
+            send(GenerationFrames.tagOnly(GenerationFrames.STARTED, tag));
+        }
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized void delta(String text) throws IOException {
+        start();
+        send(GenerationFrames.text(GenerationFrames.DELTA, tag, text));
+    }
+
+    @Override
+    public synchronized void event(JsonNode event) throws IOException {
+        start();
+        switch (event.path("type").asText()) {
+            case "delta" -> send(GenerationFrames.text(GenerationFrames.DELTA, tag, event.path("delta").asText("")));
+            case "usage" -> send(GenerationFrames.usage(tag, event.path("inputTokens").asInt(0), event.path("outputTokens").asInt(0)));
+            case "error" -> send(GenerationFrames.error(tag, event.path("code").asText("inference_error"),
+                event.path("message").asText("Inference error")));
+            case "done" -> send(GenerationFrames.tagOnly(GenerationFrames.DONE, tag));
+            default -> send(GenerationFrames.text(GenerationFrames.EVENT, tag, event.toString()));
+        }
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        if (!session.isOpen()) {
+            throw new IOException("WebSocket session is closed");
+        }
+        session.sendMessage(new PingMessage());
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        onClose.run();
+    }
+
+    private void send(ByteBuffer frame) throws IOException {
+        if (!session.isOpen()) {
+            throw new IOException("WebSocket session is closed");
+        }
+        session.sendMessage(new BinaryMessage(frame));
+    }
+}
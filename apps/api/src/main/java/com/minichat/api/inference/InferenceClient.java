@@ -5,7 +5,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.minichat.api.common.ConflictException;
 import com.minichat.api.common.NotFoundException;
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.http.HttpClient;
@@ -39,6 +41,13 @@ public class InferenceClient {
     }
 
     public void streamGenerate(GenerateRequest payload, Consumer<JsonNode> onEvent) throws IOException, InterruptedException {
+        streamGenerate(payload, upstream -> {
+        }, onEvent);
+    }
+
+    public void streamGenerate(GenerateRequest payload,
+                               Consumer<Closeable> onConnected,
+                               Consumer<JsonNode> onEvent) throws IOException, InterruptedException {
         String body = objectMapper.writeValueAsString(payload);
         HttpRequest request = HttpRequest.newBuilder(uri("/internal/generate"))
             .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
@@ -46,12 +55,18 @@ public class InferenceClient {
             .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
             .build();
 
-        HttpResponse<java.io.InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
         if (response.statusCode() >= 400) {
             throw new ConflictException("Inference stream request failed with status " + response.statusCode());
         }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+        // Closing the body from another thread aborts the blocking read and drops the upstream connection.
+        onConnected.accept(response.body());
+        readEvents(response.body(), onEvent);
+    }
+
+    public void readEvents(InputStream body, Consumer<JsonNode> onEvent) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 if (!line.startsWith("data:")) {
@@ -68,12 +83,7 @@ public class InferenceClient {
 
     public void cancelGeneration(UUID generationId) {
         try {
-            String body = objectMapper.writeValueAsString(new CancelRequest(generationId.toString()));
-            HttpRequest request = HttpRequest.newBuilder(uri("/internal/cancel"))
-                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
-                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
-                .build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = httpClient.send(cancelRequest(generationId), HttpResponse.BodyHandlers.ofString());
             if (response.statusCode() >= 400 && response.statusCode() != 404) {
                 throw new NotFoundException("Cancel failed with status " + response.statusCode());
             }
@@ -82,6 +92,22 @@ public class InferenceClient {
         }
     }
 
+    public void cancelGenerationAsync(UUID generationId) {
+        try {
+            httpClient.sendAsync(cancelRequest(generationId), HttpResponse.BodyHandlers.discarding());
+        } catch (Exception ignored) {
+            // Best effort cancel for in-flight inference.
+        }
+    }
+
+    private HttpRequest cancelRequest(UUID generationId) throws IOException {
+        String body = objectMapper.writeValueAsString(new CancelRequest(generationId.toString()));
+        return HttpRequest.newBuilder(uri("/internal/cancel"))
+            .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+            .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+            .build();
+    }
+
     private URI uri(String path) {
         String normalized = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
         return URI.create(normalized + path);
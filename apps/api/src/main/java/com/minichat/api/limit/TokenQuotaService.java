@@ -0,0 +1,182 @@
+package com.minichat.api.limit;
+
+import com.minichat.api.common.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TokenQuotaService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenQuotaService.class);
+
+    private static final Duration KEY_TTL = Duration.ofDays(2);
+    private static final int RECONCILE_CHUNK = 500;
+
+    // Raises the counter to at least ARGV[1]; increments that Redis already saw are never lost.
+    private static final DefaultRedisScript<Long> RAISE_SCRIPT = new DefaultRedisScript<>("""
+        local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+        local floor = tonumber(ARGV[1])
+        if floor > current then
+            redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2])
+            return floor
+        end
+        return current
+        """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final long dailyTokens;
+    private final int charsPerToken;
+    private final long nearCacheNanos;
+    private final ZoneId zone;
+    private final Map<UUID, Usage> nearCache = new ConcurrentHashMap<>();
+    private final Counter startRejections;
+    private final Counter streamCutoffs;
+
+    public TokenQuotaService(StringRedisTemplate redisTemplate,
+                             NamedParameterJdbcTemplate jdbcTemplate,
+                             MeterRegistry registry,
+                             @Value("${app.quota.daily-tokens}") long dailyTokens,
+                             @Value("${app.quota.chars-per-token}") int charsPerToken,
+                             @Value("${app.quota.near-cache-ms}") long nearCacheMs,
+                             @Value("${app.quota.zone}") String zone) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dailyTokens = dailyTokens;
+        this.charsPerToken = Math.max(1, charsPerToken);
+        this.nearCacheNanos = Duration.ofMillis(nearCacheMs).toNanos();
+        this.zone = ZoneId.of(zone);
+        this.startRejections = Counter.builder("minichat.quota.rejections").tag("stage", "start").register(registry);
+        this.streamCutoffs = Counter.builder("minichat.quota.rejections").tag("stage", "stream").register(registry);
+    }
+
+    public boolean isEnabled() {
+        return dailyTokens > 0;
+    }
+
+    public long requireRemaining(UUID userId) {
+        long remaining = remaining(userId);
+        if (remaining <= 0) {
+            startRejections.increment();
+            throw new TooManyRequestsException("Daily token quota exceeded");
+        }
+        return remaining;
+    }
+
+    public long remaining(UUID userId) {
+        if (!isEnabled()) {
+            return Long.MAX_VALUE;
+        }
+        return dailyTokens - used(userId);
+    }
+
+    public long estimateTokens(long chars) {
+        return (chars + charsPerToken - 1) / charsPerToken;
+    }
+
+    public void recordStartRejection() {
+        startRejections.increment();
+    }
+
+    public void recordCutoff() {
+        streamCutoffs.increment();
+    }
+
+    public void charge(UUID userId, long tokens) {
+        if (!isEnabled() || tokens <= 0) {
+            return;
+        }
+        LocalDate day = LocalDate.now(zone);
+        String key = key(userId, day);
+        try {
+            Long total = redisTemplate.opsForValue().increment(key, tokens);
+            if (total != null && total == tokens) {
+                redisTemplate.expire(key, KEY_TTL);
+            }
+            if (total != null) {
+                nearCache.put(userId, new Usage(day, total, System.nanoTime()));
+            }
+        } catch (Exception ex) {
+            log.warn("Failed to charge {} tokens to user {}: {}", tokens, userId, ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.quota.reconcile-interval-ms}", initialDelayString = "${app.quota.reconcile-interval-ms}")
+    public void reconcile() {
+        if (!isEnabled()) {
+            return;
+        }
+        LocalDate day = LocalDate.now(zone);
+        nearCache.values().removeIf(usage -> !usage.day().equals(day));
+        List<UUID> userIds = List.copyOf(nearCache.keySet());
+
+        for (int from = 0; from < userIds.size(); from += RECONCILE_CHUNK) {
+            List<UUID> chunk = userIds.subList(from, Math.min(userIds.size(), from + RECONCILE_CHUNK));
+            try {
+                jdbcTemplate.query(
+                    "SELECT user_id, input_tokens + output_tokens AS tokens FROM daily_usage WHERE day = :day AND user_id IN (:userIds)",
+                    new MapSqlParameterSource().addValue("day", Date.valueOf(day)).addValue("userIds", chunk),
+                    rs -> {
+                        UUID userId = rs.getObject("user_id", UUID.class);
+                        long used = raise(key(userId, day), rs.getLong("tokens"));
+                        nearCache.put(userId, new Usage(day, used, System.nanoTime()));
+                    });
+            } catch (Exception ex) {
+                log.warn("Token quota reconciliation failed: {}", ex.getMessage());
+                return;
+            }
+        }
+    }
+
+    private long used(UUID userId) {
+        LocalDate day = LocalDate.now(zone);
+        Usage cached = nearCache.get(userId);
+        if (cached != null && cached.day().equals(day)
+            && (cached.used() >= dailyTokens || System.nanoTime() - cached.fetchedAtNanos() < nearCacheNanos)) {
+            return cached.used();
+        }
+
+        String key = key(userId, day);
+        String value = redisTemplate.opsForValue().get(key);
+        long used = value == null ? raise(key, persistedUsage(userId, day)) : Long.parseLong(value);
+        nearCache.put(userId, new Usage(day, used, System.nanoTime()));
+        return used;
+    }
+
+    private long persistedUsage(UUID userId, LocalDate day) {
+        List<Long> rows = jdbcTemplate.queryForList(
+            "SELECT input_tokens + output_tokens FROM daily_usage WHERE user_id = :userId AND day = :day",
+            new MapSqlParameterSource().addValue("userId", userId).addValue("day", Date.valueOf(day)),
+            Long.class);
+        return rows.isEmpty() ? 0 : rows.get(0);
+    }
+
+    private long raise(String key, long floor) {
+        Long value = redisTemplate.execute(RAISE_SCRIPT, List.of(key), Long.toString(floor), Long.toString(KEY_TTL.toSeconds()));
+        return value == null ? floor : value;
+    }
+
+    private String key(UUID userId, LocalDate day) {
+        return "quota:tokens:" + userId + ":" + day;
+    }
+
+    private record Usage(LocalDate day, long used, long fetchedAtNanos) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.minichat.api.message;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MessageContentCodec {
+
+    private static final byte CODEC_LZ4 = 1;
+    private static final int HEADER_BYTES = 5;
+
+    private final boolean enabled;
+    private final int thresholdBytes;
+    private final LZ4Compressor compressor;
+    private final LZ4SafeDecompressor decompressor;
+
+    public MessageContentCodec(@Value("${app.message-codec.enabled}") boolean enabled,
+                               @Value("${app.message-codec.threshold-bytes}") int thresholdBytes) {
+        this.enabled = enabled;
+        this.thresholdBytes = thresholdBytes;
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.safeDecompressor();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int thresholdBytes() {
+        return thresholdBytes;
+    }
+
+    public byte[] pack(String content) {
+        if (!enabled || content == null || content.length() < thresholdBytes / 4) {
+            return null;
+        }
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < thresholdBytes) {
+            return null;
+        }
+
+        byte[] packed = new byte[HEADER_BYTES + compressor.maxCompressedLength(raw.length)];
+        ByteBuffer.wrap(packed).put(CODEC_LZ4).putInt(raw.length);
+        int compressedLength = compressor.compress(raw, 0, raw.length, packed, HEADER_BYTES);
+        int total = HEADER_BYTES + compressedLength;
+        if (total > raw.length * 9L / 10) {
+            return null;
+        }
+        byte[] result = new byte[total];
+        System.arraycopy(packed, 0, result, 0, total);
+        return result;
+    }
+
+    public String unpack(byte[] packed) {
+        if (packed == null) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.wrap(packed, 0, HEADER_BYTES);
+        byte codec = header.get();
+        if (codec != CODEC_LZ4) {
+            throw new IllegalStateException("Unknown message content codec: " + codec);
+        }
+        int rawLength = header.getInt();
+        byte[] raw = new byte[rawLength];
+        int decoded = decompressor.decompress(packed, HEADER_BYTES, packed.length - HEADER_BYTES, raw, 0);
+        if (decoded != rawLength) {
+            throw new IllegalStateException("Corrupt message content: expected " + rawLength + " bytes, got " + decoded);
+        }
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    public String read(String content, byte[] packed) {
+        return content != null ? content : unpack(packed);
+    }
+}
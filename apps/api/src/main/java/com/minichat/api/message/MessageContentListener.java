@@ -0,0 +1,27 @@
+package com.minichat.api.message;
+
+import com.minichat.api.tokenizer.TokenizerService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+
+public class MessageContentListener {
+
+    private final MessageContentCodec codec;
+    private final TokenizerService tokenizer;
+
+    public MessageContentListener(MessageContentCodec codec, TokenizerService tokenizer) {
+        this.codec = codec;
+        this.tokenizer = tokenizer;
+    }
+
+    @PrePersist
+    public void beforeInsert(MessageEntity message) {
+        message.countTokens(tokenizer);
+        message.pack(codec);
+    }
+
+    @PostLoad
+    public void afterLoad(MessageEntity message) {
+        message.unpack(codec);
+    }
+}
@@ -0,0 +1,120 @@
+package com.minichat.api.message;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class MessageContentMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageContentMigrator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageContentCodec codec;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Counter migratedRows;
+    private final Counter savedBytes;
+
+    private volatile boolean finished;
+
+    public MessageContentMigrator(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  MessageContentCodec codec,
+                                  MeterRegistry registry,
+                                  @Value("${app.message-codec.migration.enabled}") boolean enabled,
+                                  @Value("${app.message-codec.migration.batch-size}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.codec = codec;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.migratedRows = Counter.builder("minichat.message.codec.migrated").register(registry);
+        this.savedBytes = Counter.builder("minichat.message.codec.saved.bytes").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.message-codec.migration.interval-ms}", initialDelayString = "${app.message-codec.migration.interval-ms}")
+    public void migrateBatch() {
+        if (!enabled || !codec.isEnabled() || finished) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> migrateBatchLocked());
+        } catch (Exception ex) {
+            log.warn("Message content migration failed: {}", ex.getMessage());
+        }
+    }
+
+    // The advisory lock lets one API node run a batch at a time, and the cursor in message_codec_migration_state
+    // commits with the batch it covers, so the table is scanned once across nodes and restarts.
+    private void migrateBatchLocked() {
+        Boolean locked = jdbcTemplate.queryForObject(
+            "SELECT pg_try_advisory_xact_lock(hashtext('minichat.message-codec-migration'))", Boolean.class);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        MigrationState state = jdbcTemplate.queryForObject(
+            "SELECT last_id, finished_at FROM message_codec_migration_state WHERE id = 1",
+            (rs, rowNum) -> new MigrationState(rs.getObject("last_id", UUID.class), rs.getTimestamp("finished_at") != null));
+        if (state.finished()) {
+            finished = true;
+            return;
+        }
+
+        List<MessageRow> rows = jdbcTemplate.query("""
+                SELECT id, chat_id, content FROM messages
+                WHERE id > ?
+                  AND content IS NOT NULL
+                  AND octet_length(content) >= ?
+                ORDER BY id ASC
+                LIMIT ?
+                """,
+            (rs, rowNum) -> new MessageRow(rs.getObject("id", UUID.class), rs.getObject("chat_id", UUID.class), rs.getString("content")),
+            state.lastId(), codec.thresholdBytes(), batchSize);
+
+        if (rows.isEmpty()) {
+            jdbcTemplate.update("UPDATE message_codec_migration_state SET finished_at = ? WHERE id = 1",
+                Timestamp.from(Instant.now()));
+            finished = true;
+            log.info("Message content migration finished");
+            return;
+        }
+
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        long saved = 0;
+        for (MessageRow row : rows) {
+            byte[] packed = codec.pack(row.content());
+            if (packed != null) {
+                updates.add(new Object[] {packed, row.id(), row.chatId()});
+                saved += row.content().getBytes(StandardCharsets.UTF_8).length - packed.length;
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "UPDATE messages SET content_packed = ?, content = NULL WHERE id = ? AND chat_id = ? AND content IS NOT NULL", updates);
+        }
+        jdbcTemplate.update("UPDATE message_codec_migration_state SET last_id = ? WHERE id = 1", rows.get(rows.size() - 1).id());
+
+        migratedRows.increment(updates.size());
+        savedBytes.increment(Math.max(0, saved));
+    }
+
+    private record MigrationState(UUID lastId, boolean finished) {
+    }
+
+    private record MessageRow(UUID id, UUID chatId, String content) {
+    }
+}
@@ -2,11 +2,13 @@ package com.minichat.api.message;
 
 import com.minichat.api.common.SecurityUtils;
 import jakarta.validation.Valid;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -35,4 +37,16 @@ public class MessageController {
                                               @Valid @RequestBody MessageDtos.CreateMessageRequest request) {
         return messageService.createUserMessage(SecurityUtils.currentUserId(), chatId, request.content());
     }
+
+    @GetMapping("/{messageId}/siblings")
+    public List<MessageDtos.MessageResponse> siblings(@PathVariable("id") UUID chatId,
+                                                      @PathVariable("messageId") UUID messageId) {
+        return messageService.siblings(SecurityUtils.currentUserId(), chatId, messageId);
+    }
+
+    @PutMapping("/{messageId}/active")
+    public MessageDtos.ActiveBranchResponse activate(@PathVariable("id") UUID chatId,
+                                                     @PathVariable("messageId") UUID messageId) {
+        return messageService.activateBranch(SecurityUtils.currentUserId(), chatId, messageId);
+    }
 }
@@ -17,6 +17,7 @@ public final class MessageDtos {
 
     public record MessageResponse(
         UUID id,
+        UUID parentId,
         String role,
         String content,
         Instant createdAt
@@ -28,4 +29,9 @@ public final class MessageDtos {
         String nextCursor
     ) {
     }
+
+    public record ActiveBranchResponse(
+        UUID activeLeafId
+    ) {
+    }
 }
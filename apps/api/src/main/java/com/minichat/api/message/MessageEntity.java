@@ -1,32 +1,63 @@
 package com.minichat.api.message;
 
+import com.minichat.api.common.UuidV7;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import com.minichat.api.tokenizer.TokenCounter;
 import java.time.Instant;
 import java.util.UUID;
+import org.hibernate.annotations.ColumnTransformer;
 
 @Entity
 @Table(name = "messages")
+@EntityListeners(MessageContentListener.class)
 public class MessageEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "chat_id", nullable = false)
     private UUID chatId;
 
+    // The chat owner's id, denormalized so message search can stay within one user's rows.
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @Column(name = "parent_id")
+    private UUID parentId;
+
     @Column(nullable = false)
     private String role;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String storedContent;
+
+    @Column(name = "content_packed")
+    private byte[] contentPacked;
+
+    @Column(name = "content_tsv", columnDefinition = "tsvector", updatable = false)
+    @ColumnTransformer(read = "NULL", write = "to_tsvector('simple', ?)")
+    private String searchText;
+
+    @Transient
     private String content;
 
+    @Column(name = "token_count")
+    private Integer tokenCount;
+
+    @Column(name = "token_encoding")
+    private String tokenEncoding;
+
+    // Filled in by MessageRepository.assignTokenPrefix once the parent's prefix is known.
+    @Column(name = "token_prefix", insertable = false, updatable = false)
+    private Long tokenPrefix;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -49,6 +80,22 @@ public class MessageEntity {
         this.chatId = chatId;
     }
 
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public UUID getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(UUID parentId) {
+        this.parentId = parentId;
+    }
+
     public String getRole() {
         return role;
     }
@@ -65,7 +112,34 @@ public class MessageEntity {
         this.content = content;
     }
 
+    public Integer getTokenCount() {
+        return tokenCount;
+    }
+
+    public String getTokenEncoding() {
+        return tokenEncoding;
+    }
+
+    public Long getTokenPrefix() {
+        return tokenPrefix;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
+
+    void countTokens(TokenCounter counter) {
+        tokenCount = counter.count(content);
+        tokenEncoding = counter.encoding();
+    }
+
+    void pack(MessageContentCodec codec) {
+        searchText = content;
+        contentPacked = codec.pack(content);
+        storedContent = contentPacked == null ? content : null;
+    }
+
+    void unpack(MessageContentCodec codec) {
+        content = codec.read(storedContent, contentPacked);
+    }
 }
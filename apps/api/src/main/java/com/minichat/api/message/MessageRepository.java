@@ -1,37 +1,184 @@
 package com.minichat.api.message;
 
-import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface MessageRepository extends JpaRepository<MessageEntity, UUID> {
 
+    // The active branch is the parent chain from chats.active_leaf_id. Pages run from the leaf towards the root, so
+    // the walk stops after :limit steps no matter how long the chat is; rows come back root-first within the page.
+    @Query(value = """
+        WITH RECURSIVE path AS (
+            SELECT m.id, m.parent_id, 1 AS depth
+            FROM messages m
+            WHERE m.id = (SELECT c.active_leaf_id FROM chats c WHERE c.id = :chatId AND c.deleted_at IS NULL)
+              AND m.chat_id = :chatId
+            UNION ALL
+            SELECT p.id, p.parent_id, path.depth + 1
+            FROM messages p
+            JOIN path ON p.id = path.parent_id
+            WHERE p.chat_id = :chatId
+              AND path.depth < :limit
+        )
+        SELECT m.id, m.chat_id, m.parent_id, m.role, m.content, m.content_packed, NULL AS content_tsv,
+               m.token_count, m.token_encoding, m.token_prefix, m.created_at
+        FROM path
+        JOIN messages m ON m.id = path.id AND m.chat_id = :chatId
+        ORDER BY path.depth DESC
+        """, nativeQuery = true)
+    List<MessageEntity> findActivePathPage(@Param("chatId") UUID chatId, @Param("limit") int limit);
+
+    // Same walk, starting at the cursor's parent: the last row returned is the message right above the cursor.
+    @Query(value = """
+        WITH RECURSIVE path AS (
+            SELECT p.id, p.parent_id, 1 AS depth
+            FROM messages m
+            JOIN messages p ON p.id = m.parent_id AND p.chat_id = :chatId
+            WHERE m.id = :cursorId
+              AND m.chat_id = :chatId
+            UNION ALL
+            SELECT p.id, p.parent_id, path.depth + 1
+            FROM messages p
+            JOIN path ON p.id = path.parent_id
+            WHERE p.chat_id = :chatId
+              AND path.depth < :limit
+        )
+        SELECT m.id, m.chat_id, m.parent_id, m.role, m.content, m.content_packed, NULL AS content_tsv,
+               m.token_count, m.token_encoding, m.token_prefix, m.created_at
+        FROM path
+        JOIN messages m ON m.id = path.id AND m.chat_id = :chatId
+        ORDER BY path.depth DESC
+        """, nativeQuery = true)
+    List<MessageEntity> findActivePathPageBefore(@Param("chatId") UUID chatId,
+                                                 @Param("cursorId") UUID cursorId,
+                                                 @Param("limit") int limit);
+
+    @Query(value = """
+        WITH RECURSIVE path AS (
+            SELECT m.id, m.parent_id, 0 AS depth
+            FROM messages m
+            WHERE m.id = :leafId
+              AND m.chat_id = :chatId
+            UNION ALL
+            SELECT p.id, p.parent_id, path.depth + 1
+            FROM messages p
+            JOIN path ON p.id = path.parent_id
+            WHERE p.chat_id = :chatId
+        )
+        SELECT m.id, m.chat_id, m.parent_id, m.role, m.content, m.content_packed, NULL AS content_tsv,
+               m.token_count, m.token_encoding, m.token_prefix, m.created_at
+        FROM path
+        JOIN messages m ON m.id = path.id AND m.chat_id = :chatId
+        ORDER BY path.depth DESC
+        """, nativeQuery = true)
+    List<MessageEntity> findPath(@Param("chatId") UUID chatId, @Param("leafId") UUID leafId);
+
+    // Walks up from the leaf and stops at the first message that has a summary checkpoint; that message is the
+    // first row returned, followed by the uncovered tail. Without a checkpoint this is the whole path.
+    @Query(value = """
+        WITH RECURSIVE path AS (
+            SELECT m.id, m.parent_id, 0 AS depth,
+                   EXISTS (SELECT 1 FROM chat_summaries s WHERE s.message_id = m.id) AS checkpointed
+            FROM messages m
+            WHERE m.id = :leafId
+              AND m.chat_id = :chatId
+            UNION ALL
+            SELECT p.id, p.parent_id, path.depth + 1,
+                   EXISTS (SELECT 1 FROM chat_summaries s WHERE s.message_id = p.id)
+            FROM messages p
+            JOIN path ON p.id = path.parent_id
+            WHERE p.chat_id = :chatId
+              AND NOT path.checkpointed
+        )
+        SELECT m.id, m.chat_id, m.parent_id, m.role, m.content, m.content_packed, NULL AS content_tsv,
+               m.token_count, m.token_encoding, m.token_prefix, m.created_at
+        FROM path
+        JOIN messages m ON m.id = path.id AND m.chat_id = :chatId
+        ORDER BY path.depth DESC
+        """, nativeQuery = true)
+    List<MessageEntity> findPathSinceCheckpoint(@Param("chatId") UUID chatId, @Param("leafId") UUID leafId);
+
+    // Follows the newest child at every level, so switching to a branch resumes where it was last extended.
+    @Query(value = """
+        WITH RECURSIVE down AS (
+            SELECT m.id, 0 AS depth
+            FROM messages m
+            WHERE m.id = :messageId
+              AND m.chat_id = :chatId
+            UNION ALL
+            SELECT (
+                SELECT c.id
+                FROM messages c
+                WHERE c.parent_id = down.id
+                  AND c.chat_id = :chatId
+                ORDER BY c.created_at DESC, c.id DESC
+                LIMIT 1
+            ), down.depth + 1
+            FROM down
+            WHERE down.id IS NOT NULL
+        )
+        SELECT id FROM down WHERE id IS NOT NULL ORDER BY depth DESC LIMIT 1
+        """, nativeQuery = true)
+    Optional<UUID> findNewestDescendant(@Param("chatId") UUID chatId, @Param("messageId") UUID messageId);
+
     @Query("""
         SELECT m FROM MessageEntity m
         WHERE m.chatId = :chatId
-          AND (
-                :cursorCreatedAt IS NULL
-                OR m.createdAt > :cursorCreatedAt
-              )
+          AND m.parentId = :parentId
         ORDER BY m.createdAt ASC, m.id ASC
         """)
-    List<MessageEntity> findPage(
-        @Param("chatId") UUID chatId,
-        @Param("cursorCreatedAt") Instant cursorCreatedAt,
-        Pageable pageable
-    );
+    List<MessageEntity> findChildren(@Param("chatId") UUID chatId, @Param("parentId") UUID parentId);
 
     @Query("""
         SELECT m FROM MessageEntity m
         WHERE m.chatId = :chatId
+          AND m.parentId IS NULL
         ORDER BY m.createdAt ASC, m.id ASC
         """)
-    List<MessageEntity> findHistoryByChatId(@Param("chatId") UUID chatId);
+    List<MessageEntity> findRoots(@Param("chatId") UUID chatId);
+
+    // NULL when the parent's prefix is not known yet; MessageTokenBackfill completes it.
+    @Modifying
+    @Query(value = """
+        UPDATE messages m
+        SET token_prefix = CASE
+            WHEN m.parent_id IS NULL THEN m.token_count
+            ELSE (SELECT p.token_prefix FROM messages p WHERE p.id = m.parent_id AND p.chat_id = :chatId) + m.token_count
+        END
+        WHERE m.id = :id
+          AND m.chat_id = :chatId
+        """, nativeQuery = true)
+    int assignTokenPrefix(@Param("id") UUID id, @Param("chatId") UUID chatId);
+
+    // Recomputes every prefix of a chat top-down in one statement; rows under a NULL count stay NULL.
+    @Modifying
+    @Query(value = """
+        WITH RECURSIVE sums AS (
+            SELECT m.id, m.token_count::bigint AS prefix
+            FROM messages m
+            WHERE m.chat_id = :chatId
+              AND m.parent_id IS NULL
+            UNION ALL
+            SELECT c.id, sums.prefix + c.token_count
+            FROM messages c
+            JOIN sums ON c.parent_id = sums.id
+            WHERE c.chat_id = :chatId
+        )
+        UPDATE messages m
+        SET token_prefix = sums.prefix
+        FROM sums
+        WHERE m.id = sums.id
+          AND m.chat_id = :chatId
+          AND m.token_prefix IS DISTINCT FROM sums.prefix
+        """, nativeQuery = true)
+    int recomputeTokenPrefixes(@Param("chatId") UUID chatId);
 
     Optional<MessageEntity> findByIdAndChatId(UUID id, UUID chatId);
+
+    boolean existsByIdAndChatId(UUID id, UUID chatId);
 }
@@ -1,15 +1,23 @@
 package com.minichat.api.message;
 
-import com.minichat.api.chat.ChatEntity;
+import com.minichat.api.archive.ArchivedMessage;
+import com.minichat.api.archive.ChatArchiveService;
+import com.minichat.api.chat.ChatOwnershipIndex;
 import com.minichat.api.chat.ChatRepository;
 import com.minichat.api.common.NotFoundException;
+import com.minichat.api.common.SingleFlight;
+import com.minichat.api.datasource.ReadYourWritesTracker;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class MessageService {
@@ -19,35 +27,71 @@ public class MessageService {
 
     private final MessageRepository messageRepository;
     private final ChatRepository chatRepository;
-
-    public MessageService(MessageRepository messageRepository, ChatRepository chatRepository) {
+    private final ChatOwnershipIndex ownershipIndex;
+    private final ChatArchiveService archiveService;
+    private final ReadYourWritesTracker writesTracker;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SingleFlight<PageKey, MessageDtos.MessagePageResponse> pageFlights;
+
+    public MessageService(MessageRepository messageRepository,
+                          ChatRepository chatRepository,
+                          ChatOwnershipIndex ownershipIndex,
+                          ChatArchiveService archiveService,
+                          ReadYourWritesTracker writesTracker,
+                          TransactionTemplate transactionTemplate,
+                          MeterRegistry registry,
+                          @Value("${app.single-flight.enabled}") boolean singleFlightEnabled,
+                          @Value("${app.single-flight.result-ttl-ms}") long resultTtlMs) {
         this.messageRepository = messageRepository;
         this.chatRepository = chatRepository;
+        this.ownershipIndex = ownershipIndex;
+        this.archiveService = archiveService;
+        this.writesTracker = writesTracker;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.pageFlights = new SingleFlight<>("messages.list", singleFlightEnabled, resultTtlMs, registry);
     }
 
-    @Transactional(readOnly = true)
+    // Not transactional itself: only the load opens a read-only transaction, so callers waiting on a shared load
+    // hold no connection while they wait.
     public MessageDtos.MessagePageResponse list(UUID userId, UUID chatId, String cursor, Integer limit) {
-        ensureChatOwnership(userId, chatId);
+        ownershipIndex.requireOwner(userId, chatId);
 
         int pageSize = sanitizeLimit(limit);
-        Instant cursorCreatedAt = null;
-        UUID cursorId = null;
-
-        if (cursor != null && !cursor.isBlank()) {
-            cursorId = parseCursor(cursor);
-            MessageEntity cursorMessage = messageRepository.findByIdAndChatId(cursorId, chatId)
-                .orElseThrow(() -> new NotFoundException("Cursor message not found"));
-            cursorCreatedAt = cursorMessage.getCreatedAt();
+        UUID cursorId = cursor == null || cursor.isBlank() ? null : parseCursor(cursor);
+        // Identical page reads share one query; a caller who just wrote must see that write, so it reads alone.
+        if (writesTracker.isSticky(userId)) {
+            return pageFlights.bypass(() -> loadPage(chatId, cursorId, pageSize));
         }
+        return pageFlights.execute(new PageKey(chatId, cursorId, pageSize), () -> loadPage(chatId, cursorId, pageSize));
+    }
 
-        List<MessageEntity> page = messageRepository.findPage(
-            chatId,
-            cursorCreatedAt,
-            PageRequest.of(0, pageSize + 1)
-        );
+    private MessageDtos.MessagePageResponse loadPage(UUID chatId, UUID cursorId, int pageSize) {
+        return readOnlyTransaction.execute(status -> readPage(chatId, cursorId, pageSize));
+    }
+
+    private MessageDtos.MessagePageResponse readPage(UUID chatId, UUID cursorId, int pageSize) {
+        List<MessageEntity> page = cursorId == null
+            ? messageRepository.findActivePathPage(chatId, pageSize + 1)
+            : messageRepository.findActivePathPageBefore(chatId, cursorId, pageSize + 1);
+        // Archived chats have no message rows; an empty page is the only case that needs the index lookup.
+        if (page.isEmpty()) {
+            Optional<ChatArchiveService.ArchivedChat> archived = archiveService.find(chatId);
+            if (archived.isPresent()) {
+                return archivedPage(archived.get().activePath(), cursorId, pageSize);
+            }
+            if (cursorId != null && !messageRepository.existsByIdAndChatId(cursorId, chatId)) {
+                throw new NotFoundException("Cursor message not found");
+            }
+        }
+        return toPage(page, pageSize);
+    }
 
+    // Pages are read from the leaf upwards with one extra row; the extra row is the oldest, and the oldest row kept
+    // is the cursor for the page above.
+    public MessageDtos.MessagePageResponse toPage(List<MessageEntity> page, int pageSize) {
         boolean hasMore = page.size() > pageSize;
-        List<MessageEntity> data = hasMore ? page.subList(0, pageSize) : page;
+        List<MessageEntity> data = hasMore ? page.subList(page.size() - pageSize, page.size()) : page;
         List<MessageDtos.MessageResponse> items = new ArrayList<>(data.size());
         for (MessageEntity msg : data) {
             items.add(toResponse(msg));
@@ -55,33 +99,104 @@ public class MessageService {
 
         String nextCursor = null;
         if (hasMore) {
-            nextCursor = data.get(data.size() - 1).getId().toString();
+            nextCursor = data.get(0).getId().toString();
         }
 
         return new MessageDtos.MessagePageResponse(items, nextCursor);
     }
 
+    private MessageDtos.MessagePageResponse archivedPage(List<ArchivedMessage> path, UUID cursorId, int pageSize) {
+        int end = path.size();
+        if (cursorId != null) {
+            end = -1;
+            for (int i = 0; i < path.size(); i++) {
+                if (path.get(i).id().equals(cursorId)) {
+                    end = i;
+                    break;
+                }
+            }
+            if (end < 0) {
+                throw new NotFoundException("Cursor message not found");
+            }
+        }
+        int start = Math.max(0, end - pageSize);
+        List<MessageDtos.MessageResponse> items = new ArrayList<>(end - start);
+        for (ArchivedMessage message : path.subList(start, end)) {
+            items.add(toResponse(message));
+        }
+        String nextCursor = start > 0 ? path.get(start).id().toString() : null;
+        return new MessageDtos.MessagePageResponse(items, nextCursor);
+    }
+
     @Transactional
     public MessageDtos.MessageResponse createUserMessage(UUID userId, UUID chatId, String content) {
-        ChatEntity chat = chatRepository.findByIdAndUserId(chatId, userId)
-            .orElseThrow(() -> new NotFoundException("Chat not found"));
+        ownershipIndex.requireOwner(userId, chatId);
+        archiveService.thawIfArchived(chatId);
 
+        UUID leafId = chatRepository.lockActiveLeaf(chatId).orElse(null);
         MessageEntity message = new MessageEntity();
         message.setChatId(chatId);
+        message.setUserId(userId);
+        message.setParentId(leafId);
         message.setRole("user");
         message.setContent(content.trim());
 
-        MessageEntity saved = messageRepository.save(message);
-        chat.touch();
-        chatRepository.save(chat);
+        MessageEntity saved = messageRepository.saveAndFlush(message);
+        messageRepository.assignTokenPrefix(saved.getId(), chatId);
+        chatRepository.advanceLeaf(chatId, saved.getId(), Instant.now());
 
         return toResponse(saved);
     }
 
-    private void ensureChatOwnership(UUID userId, UUID chatId) {
-        if (!chatRepository.existsByIdAndUserId(chatId, userId)) {
-            throw new NotFoundException("Chat not found");
+    @Transactional
+    public MessageDtos.ActiveBranchResponse activateBranch(UUID userId, UUID chatId, UUID messageId) {
+        ownershipIndex.requireOwner(userId, chatId);
+        archiveService.thawIfArchived(chatId);
+
+        chatRepository.lockActiveLeaf(chatId);
+        UUID leafId = messageRepository.findNewestDescendant(chatId, messageId)
+            .orElseThrow(() -> new NotFoundException("Message not found"));
+        chatRepository.advanceLeaf(chatId, leafId, Instant.now());
+        return new MessageDtos.ActiveBranchResponse(leafId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MessageDtos.MessageResponse> siblings(UUID userId, UUID chatId, UUID messageId) {
+        ownershipIndex.requireOwner(userId, chatId);
+
+        Optional<MessageEntity> found = messageRepository.findByIdAndChatId(messageId, chatId);
+        if (found.isEmpty()) {
+            return archivedSiblings(chatId, messageId);
+        }
+        MessageEntity message = found.get();
+        List<MessageEntity> siblings = message.getParentId() == null
+            ? messageRepository.findRoots(chatId)
+            : messageRepository.findChildren(chatId, message.getParentId());
+
+        List<MessageDtos.MessageResponse> items = new ArrayList<>(siblings.size());
+        for (MessageEntity sibling : siblings) {
+            items.add(toResponse(sibling));
+        }
+        return items;
+    }
+
+    private List<MessageDtos.MessageResponse> archivedSiblings(UUID chatId, UUID messageId) {
+        List<ArchivedMessage> messages = archiveService.find(chatId)
+            .map(ChatArchiveService.ArchivedChat::messages)
+            .orElseThrow(() -> new NotFoundException("Message not found"));
+        ArchivedMessage message = messages.stream()
+            .filter(candidate -> candidate.id().equals(messageId))
+            .findFirst()
+            .orElseThrow(() -> new NotFoundException("Message not found"));
+
+        // Blocks keep messages in (created_at, id) order, the order findChildren and findRoots return.
+        List<MessageDtos.MessageResponse> items = new ArrayList<>();
+        for (ArchivedMessage candidate : messages) {
+            if (Objects.equals(candidate.parentId(), message.parentId())) {
+                items.add(toResponse(candidate));
+            }
         }
+        return items;
     }
 
     private int sanitizeLimit(Integer limit) {
@@ -100,6 +215,15 @@ public class MessageService {
     }
 
     private MessageDtos.MessageResponse toResponse(MessageEntity entity) {
-        return new MessageDtos.MessageResponse(entity.getId(), entity.getRole(), entity.getContent(), entity.getCreatedAt());
+        return new MessageDtos.MessageResponse(entity.getId(), entity.getParentId(), entity.getRole(), entity.getContent(),
+            entity.getCreatedAt());
+    }
+
+    private record PageKey(UUID chatId, UUID cursorId, int pageSize) {
+    }
+
+    private MessageDtos.MessageResponse toResponse(ArchivedMessage message) {
+        return new MessageDtos.MessageResponse(message.id(), message.parentId(), message.role(), message.content(),
+            message.createdAt());
     }
 }
@@ -0,0 +1,112 @@
+package com.minichat.api.message;
+
+import com.minichat.api.tokenizer.TokenizerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class MessageTokenBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageTokenBackfill.class);
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageRepository messageRepository;
+    private final MessageContentCodec codec;
+    private final TokenizerService tokenizer;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int chatsPerRun;
+    private final Counter countedRows;
+    private final Counter prefixedChats;
+
+    private volatile UUID lastId = MIN_UUID;
+    private volatile boolean countsFinished;
+
+    public MessageTokenBackfill(JdbcTemplate jdbcTemplate,
+                                MessageRepository messageRepository,
+                                MessageContentCodec codec,
+                                TokenizerService tokenizer,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry registry,
+                                @Value("${app.tokenizer.backfill.enabled}") boolean enabled,
+                                @Value("${app.tokenizer.backfill.batch-size}") int batchSize,
+                                @Value("${app.tokenizer.backfill.chats-per-run}") int chatsPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messageRepository = messageRepository;
+        this.codec = codec;
+        this.tokenizer = tokenizer;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.chatsPerRun = chatsPerRun;
+        this.countedRows = Counter.builder("minichat.message.tokens.backfilled").register(registry);
+        this.prefixedChats = Counter.builder("minichat.message.tokens.prefixed.chats").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.tokenizer.backfill.interval-ms}", initialDelayString = "${app.tokenizer.backfill.interval-ms}")
+    public void backfillBatch() {
+        if (!enabled) {
+            return;
+        }
+        if (!countsFinished) {
+            countBatch();
+        }
+        prefixChats();
+    }
+
+    // Rows without a count, or counted under another encoding, are recounted. Clearing token_prefix queues the
+    // chat for prefixChats, which also repairs the prefixes of every descendant.
+    private void countBatch() {
+        String encoding = tokenizer.encoding();
+        List<MessageRow> rows = jdbcTemplate.query("""
+                SELECT id, chat_id, content, content_packed FROM messages
+                WHERE id > ?
+                  AND token_encoding IS DISTINCT FROM ?
+                ORDER BY id ASC
+                LIMIT ?
+                """,
+            (rs, rowNum) -> new MessageRow(rs.getObject("id", UUID.class), rs.getObject("chat_id", UUID.class),
+                codec.read(rs.getString("content"), rs.getBytes("content_packed"))),
+            lastId, encoding, batchSize);
+
+        if (rows.isEmpty()) {
+            countsFinished = true;
+            log.info("Message token count backfill finished for encoding {}", encoding);
+            return;
+        }
+
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        for (MessageRow row : rows) {
+            updates.add(new Object[] {tokenizer.count(row.content()), encoding, row.id(), row.chatId()});
+        }
+        jdbcTemplate.batchUpdate(
+            "UPDATE messages SET token_count = ?, token_encoding = ?, token_prefix = NULL WHERE id = ? AND chat_id = ?", updates);
+        countedRows.increment(updates.size());
+        lastId = rows.get(rows.size() - 1).id();
+    }
+
+    private void prefixChats() {
+        List<UUID> chatIds = jdbcTemplate.queryForList(
+            "SELECT DISTINCT chat_id FROM messages WHERE token_prefix IS NULL AND token_count IS NOT NULL LIMIT ?",
+            UUID.class, chatsPerRun);
+        for (UUID chatId : chatIds) {
+            transactionTemplate.executeWithoutResult(status -> messageRepository.recomputeTokenPrefixes(chatId));
+            prefixedChats.increment();
+        }
+    }
+
+    private record MessageRow(UUID id, UUID chatId, String content) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.minichat.api.partition;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Keeps the monthly partitions of generations attached ahead of time and detaches the ones past retention.
+// Partitions are named generations_pYYYY_MM and cover that UTC month, matching V10.
+@Component
+public class PartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionManager.class);
+    private static final String TABLE = "generations";
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int premakeMonths;
+    private final int retentionMonths;
+    private final long lockTimeoutMs;
+    private final AtomicInteger attached = new AtomicInteger();
+    private final Counter created;
+    private final Counter detached;
+
+    public PartitionManager(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry registry,
+                            @Value("${app.partitions.enabled}") boolean enabled,
+                            @Value("${app.partitions.premake-months}") int premakeMonths,
+                            @Value("${app.partitions.retention-months}") int retentionMonths,
+                            @Value("${app.partitions.lock-timeout-ms}") long lockTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.premakeMonths = premakeMonths;
+        this.retentionMonths = retentionMonths;
+        this.lockTimeoutMs = lockTimeoutMs;
+
+        Gauge.builder("minichat.partitions.attached", attached, AtomicInteger::get)
+            .tag("table", TABLE)
+            .description("Monthly partitions currently attached")
+            .register(registry);
+        this.created = Counter.builder("minichat.partitions.created").tag("table", TABLE).register(registry);
+        this.detached = Counter.builder("minichat.partitions.detached").tag("table", TABLE).register(registry);
+    }
+
+    // No initial delay, so a node starting after a long outage attaches the current month right away.
+    @Scheduled(fixedDelayString = "${app.partitions.interval-ms}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            maintain(YearMonth.now(ZoneOffset.UTC));
+        } catch (Exception ex) {
+            log.warn("Partition maintenance failed: {}", ex.getMessage());
+        }
+    }
+
+    private void maintain(YearMonth current) {
+        Set<YearMonth> months = attachedMonths();
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!months.contains(month) && runDdl(createSql(month))) {
+                created.increment();
+                months.add(month);
+                log.info("Created partition {}", partitionName(month));
+            }
+        }
+
+        // A month is expired once all of it is older than the retention window; 0 keeps everything.
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            for (YearMonth month : List.copyOf(months)) {
+                if (month.isBefore(oldestKept)
+                    && runDdl(deleteRequestsSql(month), "ALTER TABLE " + TABLE + " DETACH PARTITION " + partitionName(month))) {
+                    detached.increment();
+                    months.remove(month);
+                    log.info("Detached partition {}; the table is kept until it is dropped by hand", partitionName(month));
+                }
+            }
+        }
+        attached.set(months.size());
+    }
+
+    private Set<YearMonth> attachedMonths() {
+        List<String> names = jdbcTemplate.queryForList("""
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = ?::regclass
+            """, String.class, TABLE);
+        Set<YearMonth> months = new TreeSet<>();
+        for (String name : names) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return months;
+    }
+
+    // Partition DDL locks the parent table; lock_timeout keeps it from queueing behind long transactions and
+    // stalling generation writes, and the advisory lock lets only one API node run it. Either way it is retried
+    // on the next run.
+    private boolean runDdl(String... statements) {
+        Boolean done = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('minichat.partitions'))", Boolean.class);
+            if (!Boolean.TRUE.equals(locked)) {
+                return false;
+            }
+            jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+            for (String sql : statements) {
+                jdbcTemplate.execute(sql);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(done);
+    }
+
+    private static String createSql(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + TABLE
+            + " FOR VALUES FROM ('" + month.atDay(1) + " 00:00:00+00') TO ('" + month.plusMonths(1).atDay(1) + " 00:00:00+00')";
+    }
+
+    // generation_requests references the partition, so its rows for the month go in the transaction that detaches it.
+    private static String deleteRequestsSql(YearMonth month) {
+        return "DELETE FROM generation_requests WHERE created_at >= '" + month.atDay(1) + " 00:00:00+00'"
+            + " AND created_at < '" + month.plusMonths(1).atDay(1) + " 00:00:00+00'";
+    }
+
+    private static String partitionName(YearMonth month) {
+        return TABLE + "_p" + SUFFIX.format(month);
+    }
+}
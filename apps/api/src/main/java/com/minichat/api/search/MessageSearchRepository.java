@@ -0,0 +1,80 @@
+package com.minichat.api.search;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class MessageSearchRepository {
+
+    // Only the user's newest matches are ranked. A rare term reads its postings from the (user_id, content_tsv) GIN
+    // index; a common term walks (user_id, created_at) until enough rows match. Either way at most this many rows get
+    // a ts_rank, so a term in every message costs as much as one in a few hundred.
+    private static final int MAX_CANDIDATES = 200;
+
+    private static final String SEARCH_SQL = """
+        SELECT hit.id, hit.chat_id, hit.title, hit.role, hit.created_at, hit.rank,
+               CASE WHEN hit.content IS NOT NULL THEN
+                   ts_headline('simple', hit.content, websearch_to_tsquery('simple', :query),
+                               'StartSel=<mark>, StopSel=</mark>, MaxWords=24, MinWords=8, MaxFragments=2')
+               END AS snippet,
+               CASE WHEN hit.content IS NULL THEN hit.content_packed END AS content_packed
+        FROM (
+            SELECT candidate.*, ts_rank(candidate.content_tsv, websearch_to_tsquery('simple', :query)) AS rank
+            FROM (
+                SELECT m.id, m.chat_id, c.title, m.role, m.created_at, m.content, m.content_packed, m.content_tsv
+                FROM messages m
+                JOIN chats c ON c.id = m.chat_id
+                WHERE m.user_id = :userId
+                  AND m.content_tsv @@ websearch_to_tsquery('simple', :query)
+                  AND c.deleted_at IS NULL
+                ORDER BY m.created_at DESC
+                LIMIT :candidates
+            ) candidate
+        ) hit
+        WHERE CAST(:cursorRank AS real) IS NULL
+           OR (hit.rank, hit.id) < (CAST(:cursorRank AS real), CAST(:cursorId AS uuid))
+        ORDER BY hit.rank DESC, hit.id DESC
+        LIMIT :limit
+        """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public MessageSearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<Row> search(UUID userId, String query, Float cursorRank, UUID cursorId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("userId", userId)
+            .addValue("query", query)
+            .addValue("cursorRank", cursorRank)
+            .addValue("cursorId", cursorId)
+            .addValue("candidates", MAX_CANDIDATES)
+            .addValue("limit", limit);
+
+        return jdbcTemplate.query(SEARCH_SQL, params, (rs, rowNum) -> new Row(
+            rs.getObject("id", UUID.class),
+            rs.getObject("chat_id", UUID.class),
+            rs.getString("title"),
+            rs.getString("role"),
+            rs.getString("snippet"),
+            rs.getBytes("content_packed"),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getFloat("rank")
+        ));
+    }
+
+    public record Row(UUID id,
+                      UUID chatId,
+                      String chatTitle,
+                      String role,
+                      String snippet,
+                      byte[] contentPacked,
+                      Instant createdAt,
+                      float rank) {
+    }
+}
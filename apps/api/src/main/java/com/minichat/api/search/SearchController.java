@@ -0,0 +1,28 @@
+package com.minichat.api.search;
+
+import com.minichat.api.common.SecurityUtils;
+import jakarta.validation.constraints.Size;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Validated
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping("/messages")
+    public SearchDtos.MessageSearchResponse searchMessages(@RequestParam("q") @Size(max = 500) String query,
+                                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                                           @RequestParam(value = "limit", required = false) Integer limit) {
+        return searchService.searchMessages(SecurityUtils.currentUserId(), query, cursor, limit);
+    }
+}
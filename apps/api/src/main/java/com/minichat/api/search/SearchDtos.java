@@ -0,0 +1,26 @@
+package com.minichat.api.search;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public final class SearchDtos {
+    private SearchDtos() {
+    }
+
+    public record MessageHit(
+        UUID messageId,
+        UUID chatId,
+        String chatTitle,
+        String role,
+        String snippet,
+        Instant createdAt
+    ) {
+    }
+
+    public record MessageSearchResponse(
+        List<MessageHit> items,
+        String nextCursor
+    ) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.minichat.api.search;
+
+import com.minichat.api.message.MessageContentCodec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class SearchService {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 50;
+
+    private static final int SNIPPET_RADIUS = 80;
+
+    private final MessageSearchRepository searchRepository;
+    private final MessageContentCodec contentCodec;
+
+    public SearchService(MessageSearchRepository searchRepository, MessageContentCodec contentCodec) {
+        this.searchRepository = searchRepository;
+        this.contentCodec = contentCodec;
+    }
+
+    @Transactional(readOnly = true)
+    public SearchDtos.MessageSearchResponse searchMessages(UUID userId, String query, String cursor, Integer limit) {
+        String normalized = query == null ? "" : query.trim();
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("q must not be blank");
+        }
+
+        int pageSize = sanitizeLimit(limit);
+        Float cursorRank = null;
+        UUID cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            cursorRank = Float.intBitsToFloat(Integer.parseUnsignedInt(parts[0], 16));
+            cursorId = UUID.fromString(parts[1]);
+        }
+
+        List<MessageSearchRepository.Row> rows = searchRepository.search(userId, normalized, cursorRank, cursorId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<MessageSearchRepository.Row> data = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<SearchDtos.MessageHit> items = new ArrayList<>(data.size());
+        for (MessageSearchRepository.Row row : data) {
+            String snippet = row.snippet() != null ? row.snippet() : packedSnippet(row.contentPacked(), normalized);
+            items.add(new SearchDtos.MessageHit(row.id(), row.chatId(), row.chatTitle(), row.role(), snippet, row.createdAt()));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            MessageSearchRepository.Row last = data.get(data.size() - 1);
+            nextCursor = encodeCursor(last.rank(), last.id());
+        }
+        return new SearchDtos.MessageSearchResponse(items, nextCursor);
+    }
+
+    private String packedSnippet(byte[] packed, String query) {
+        String content = contentCodec.unpack(packed);
+        if (content == null) {
+            return "";
+        }
+        String lower = content.toLowerCase(Locale.ROOT);
+        for (String term : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            int at = term.isEmpty() ? -1 : lower.indexOf(term);
+            if (at >= 0) {
+                int start = Math.max(0, at - SNIPPET_RADIUS);
+                int end = Math.min(content.length(), at + term.length() + SNIPPET_RADIUS);
+                return content.substring(start, at) + "<mark>" + content.substring(at, at + term.length()) + "</mark>"
+                    + content.substring(at + term.length(), end);
+            }
+        }
+        return content.substring(0, Math.min(content.length(), SNIPPET_RADIUS * 2));
+    }
+
+    private int sanitizeLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(MAX_LIMIT, limit));
+    }
+
+    private String encodeCursor(float rank, UUID id) {
+        String raw = Integer.toHexString(Float.floatToIntBits(rank)) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("cursor is invalid");
+            }
+            Integer.parseUnsignedInt(parts[0], 16);
+            UUID.fromString(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("cursor is invalid");
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.minichat.api.summary;
+
+import com.minichat.api.chat.ChatEntity;
+import com.minichat.api.chat.ChatRepository;
+import com.minichat.api.event.DomainEventPublisher;
+import com.minichat.api.inference.InferenceClient;
+import com.minichat.api.limit.TokenQuotaService;
+import com.minichat.api.message.MessageEntity;
+import com.minichat.api.message.MessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ChatSummarizer {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatSummarizer.class);
+    private static final String SUMMARY_PROMPT = """
+        You maintain a running summary of a conversation between a user and an assistant. Merge the previous summary \
+        (if any) with the new messages into one concise summary. Keep facts, decisions, names, numbers, code \
+        identifiers and open questions; drop pleasantries. Write in the third person and reply with the summary only.""";
+    private static final String CHECKPOINT_PREFIX = "Summary of the earlier conversation:\n";
+    private static final double SUMMARY_TEMPERATURE = 0.2;
+
+    private final MessageRepository messageRepository;
+    private final ChatRepository chatRepository;
+    private final ChatSummaryRepository summaryRepository;
+    private final InferenceClient inferenceClient;
+    private final TokenQuotaService quotaService;
+    private final DomainEventPublisher eventPublisher;
+    private final ThreadPoolTaskExecutor generationExecutor;
+    private final boolean enabled;
+    private final String model;
+    private final int triggerMessages;
+    private final int keepRecent;
+    private final int maxFoldMessages;
+    private final long maxSourceChars;
+    private final int maxTokens;
+    private final int reservedThreads;
+
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final Counter created;
+    private final Counter skipped;
+    private final Counter failed;
+    private final Timer duration;
+
+    public ChatSummarizer(MessageRepository messageRepository,
+                          ChatRepository chatRepository,
+                          ChatSummaryRepository summaryRepository,
+                          InferenceClient inferenceClient,
+                          TokenQuotaService quotaService,
+                          DomainEventPublisher eventPublisher,
+                          @Qualifier("generationExecutor") ThreadPoolTaskExecutor generationExecutor,
+                          MeterRegistry registry,
+                          @Value("${app.summary.enabled}") boolean enabled,
+                          @Value("${app.summary.model}") String model,
+                          @Value("${app.summary.trigger-messages}") int triggerMessages,
+                          @Value("${app.summary.keep-recent}") int keepRecent,
+                          @Value("${app.summary.max-fold-messages}") int maxFoldMessages,
+                          @Value("${app.summary.max-source-chars}") long maxSourceChars,
+                          @Value("${app.summary.max-tokens}") int maxTokens,
+                          @Value("${app.summary.reserved-threads}") int reservedThreads) {
+        this.messageRepository = messageRepository;
+        this.chatRepository = chatRepository;
+        this.summaryRepository = summaryRepository;
+        this.inferenceClient = inferenceClient;
+        this.quotaService = quotaService;
+        this.eventPublisher = eventPublisher;
+        this.generationExecutor = generationExecutor;
+        this.enabled = enabled;
+        this.model = model;
+        this.triggerMessages = triggerMessages;
+        this.keepRecent = keepRecent;
+        this.maxFoldMessages = maxFoldMessages;
+        this.maxSourceChars = maxSourceChars;
+        this.maxTokens = maxTokens;
+        this.reservedThreads = reservedThreads;
+
+        this.created = Counter.builder("minichat.summary.runs").tag("result", "created").register(registry);
+        this.skipped = Counter.builder("minichat.summary.runs").tag("result", "skipped").register(registry);
+        this.failed = Counter.builder("minichat.summary.runs").tag("result", "failed").register(registry);
+        this.duration = Timer.builder("minichat.summary.duration")
+            .description("Time to compact older turns of a chat into a summary checkpoint")
+            .register(registry);
+    }
+
+    // The checkpoint (as a system message) followed by the messages after it, root first.
+    public List<InferenceClient.GenerateMessage> promptMessages(UUID chatId, UUID leafId) {
+        PromptHistory history = history(chatId, leafId);
+        List<InferenceClient.GenerateMessage> messages = new ArrayList<>(history.recent().size() + 1);
+        if (history.checkpoint() != null) {
+            messages.add(new InferenceClient.GenerateMessage("system", CHECKPOINT_PREFIX + history.checkpoint().summary()));
+        }
+        for (MessageEntity message : history.recent()) {
+            messages.add(new InferenceClient.GenerateMessage(message.getRole(), message.getContent()));
+        }
+        return messages;
+    }
+
+    // Summaries only take spare generation capacity: nothing may be queued and reserved threads stay free for
+    // streams. A skipped chat is picked up again after its next turn.
+    public void schedule(UUID chatId) {
+        if (!enabled || !pending.add(chatId)) {
+            return;
+        }
+        ThreadPoolExecutor pool = generationExecutor.getThreadPoolExecutor();
+        if (!pool.getQueue().isEmpty() || pool.getActiveCount() + reservedThreads > pool.getCorePoolSize()) {
+            pending.remove(chatId);
+            skipped.increment();
+            return;
+        }
+        try {
+            generationExecutor.execute(() -> summarize(chatId));
+        } catch (TaskRejectedException ex) {
+            pending.remove(chatId);
+            skipped.increment();
+        }
+    }
+
+    private void summarize(UUID chatId) {
+        long startedAt = System.nanoTime();
+        try {
+            // A long chat without checkpoints is folded a bounded slice at a time until it is under the threshold.
+            while (compact(chatId)) {
+                created.increment();
+                if (!generationExecutor.getThreadPoolExecutor().getQueue().isEmpty()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failed.increment();
+        } catch (Exception ex) {
+            failed.increment();
+            log.warn("Failed to summarize chat {}: {}", chatId, ex.getMessage());
+        } finally {
+            pending.remove(chatId);
+            duration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean compact(UUID chatId) throws IOException, InterruptedException {
+        ChatEntity chat = chatRepository.findById(chatId).orElse(null);
+        if (chat == null || chat.getActiveLeafId() == null) {
+            return false;
+        }
+        UUID leafId = chat.getActiveLeafId();
+        PromptHistory history = history(chatId, leafId);
+        List<MessageEntity> recent = history.recent();
+        if (recent.size() < triggerMessages) {
+            return false;
+        }
+
+        int foldable = Math.min(recent.size() - keepRecent, maxFoldMessages);
+        List<MessageEntity> fold = new ArrayList<>(Math.max(0, foldable));
+        long chars = 0;
+        for (int i = 0; i < foldable; i++) {
+            MessageEntity message = recent.get(i);
+            int length = message.getContent() == null ? 0 : message.getContent().length();
+            if (!fold.isEmpty() && chars + length > maxSourceChars) {
+                break;
+            }
+            fold.add(message);
+            chars += length;
+        }
+        if (fold.isEmpty()) {
+            return false;
+        }
+
+        List<InferenceClient.GenerateMessage> messages = summaryMessages(history.checkpoint(), fold);
+        // Summaries run on the owner's behalf and count against their daily quota like any other generation.
+        long promptChars = 0;
+        for (InferenceClient.GenerateMessage message : messages) {
+            promptChars += message.content() == null ? 0 : message.content().length();
+        }
+        long estimatedInputTokens = quotaService.estimateTokens(promptChars);
+        if (quotaService.remaining(chat.getUserId()) < estimatedInputTokens + maxTokens) {
+            skipped.increment();
+            return false;
+        }
+
+        String summary = requestSummary(chat.getUserId(), messages, estimatedInputTokens);
+        if (summary.isEmpty()) {
+            return false;
+        }
+        int covered = (history.checkpoint() == null ? 0 : history.checkpoint().coveredMessages()) + fold.size();
+        return summaryRepository.insert(chatId, fold.get(fold.size() - 1).getId(), summary, covered, model);
+    }
+
+    private PromptHistory history(UUID chatId, UUID leafId) {
+        if (!enabled) {
+            return new PromptHistory(null, messageRepository.findPath(chatId, leafId));
+        }
+        List<MessageEntity> rows = messageRepository.findPathSinceCheckpoint(chatId, leafId);
+        if (rows.isEmpty()) {
+            return new PromptHistory(null, rows);
+        }
+        // The walk stops at a checkpointed message; that message is covered by the summary, not sent as-is.
+        return summaryRepository.find(rows.get(0).getId())
+            .map(checkpoint -> new PromptHistory(checkpoint, rows.subList(1, rows.size())))
+            .orElseGet(() -> new PromptHistory(null, rows));
+    }
+
+    private List<InferenceClient.GenerateMessage> summaryMessages(ChatSummaryRepository.Checkpoint previous,
+                                                                  List<MessageEntity> fold) {
+        List<InferenceClient.GenerateMessage> messages = new ArrayList<>(fold.size() + 3);
+        messages.add(new InferenceClient.GenerateMessage("system", SUMMARY_PROMPT));
+        if (previous != null) {
+            messages.add(new InferenceClient.GenerateMessage("system", CHECKPOINT_PREFIX + previous.summary()));
+        }
+        for (MessageEntity message : fold) {
+            messages.add(new InferenceClient.GenerateMessage(message.getRole(), message.getContent()));
+        }
+        messages.add(new InferenceClient.GenerateMessage("user", "Write the updated summary now."));
+        return messages;
+    }
+
+    private String requestSummary(UUID userId, List<InferenceClient.GenerateMessage> messages, long estimatedInputTokens)
+        throws IOException, InterruptedException {
+        UUID requestId = UUID.randomUUID();
+        StringBuilder text = new StringBuilder();
+        AtomicReference<String> error = new AtomicReference<>();
+        AtomicInteger inputTokens = new AtomicInteger(-1);
+        AtomicInteger outputTokens = new AtomicInteger(-1);
+        try {
+            inferenceClient.streamGenerate(new InferenceClient.GenerateRequest(
+                requestId.toString(), model, SUMMARY_PROMPT, SUMMARY_TEMPERATURE, maxTokens, messages), event -> {
+                    String type = event.path("type").asText();
+                    if ("delta".equals(type)) {
+                        text.append(event.path("delta").asText(""));
+                    } else if ("usage".equals(type)) {
+                        inputTokens.set(event.path("inputTokens").asInt(0));
+                        outputTokens.set(event.path("outputTokens").asInt(0));
+                    } else if ("error".equals(type)) {
+                        error.set(event.path("message").asText("Inference error"));
+                    }
+                });
+        } finally {
+            if (outputTokens.get() >= 0) {
+                quotaService.charge(userId, (long) inputTokens.get() + outputTokens.get());
+                // Recorded under the inference request id; it has no generations row.
+                eventPublisher.publishUsage(userId, requestId, inputTokens.get(), outputTokens.get(), model);
+            } else if (!text.isEmpty()) {
+                // No usage event arrived: charge the estimate, as a failed stream does.
+                quotaService.charge(userId, estimatedInputTokens + quotaService.estimateTokens(text.length()));
+            }
+        }
+        if (error.get() != null) {
+            throw new IllegalStateException(error.get());
+        }
+        return text.toString().trim();
+    }
+
+    private record PromptHistory(ChatSummaryRepository.Checkpoint checkpoint, List<MessageEntity> recent) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.minichat.api.summary;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class ChatSummaryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ChatSummaryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Checkpoint> find(UUID messageId) {
+        List<Checkpoint> rows = jdbcTemplate.query(
+            "SELECT message_id, summary, covered_messages FROM chat_summaries WHERE message_id = ?",
+            (rs, rowNum) -> new Checkpoint(rs.getObject("message_id", UUID.class), rs.getString("summary"), rs.getInt("covered_messages")),
+            messageId);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    // Two summarizers racing on the same message produce equivalent checkpoints; the first one wins.
+    public boolean insert(UUID chatId, UUID messageId, String summary, int coveredMessages, String model) {
+        return jdbcTemplate.update("""
+            INSERT INTO chat_summaries (message_id, chat_id, summary, covered_messages, model)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (message_id) DO NOTHING
+            """, messageId, chatId, summary, coveredMessages, model) == 1;
+    }
+
+    public record Checkpoint(UUID messageId, String summary, int coveredMessages) {
+    }
+}
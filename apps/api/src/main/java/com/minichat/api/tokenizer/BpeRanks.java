@@ -0,0 +1,125 @@
+package com.minichat.api.tokenizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Base64;
+
+// Token bytes -> merge rank. Token bytes live back to back in one array and an open-addressing table of token
+// indexes points into it, so lookups take a slice of the input and allocate nothing.
+final class BpeRanks {
+
+    private static final int EMPTY = -1;
+
+    private final byte[] pool;
+    private final int[] offsets;
+    private final int[] ranks;
+    private final int[] table;
+    private final int mask;
+    private final int size;
+
+    private BpeRanks(byte[] pool, int[] offsets, int[] ranks, int size) {
+        this.pool = pool;
+        this.offsets = offsets;
+        this.ranks = ranks;
+        this.size = size;
+        int capacity = Integer.highestOneBit(Math.max(16, size * 2 - 1)) << 1;
+        this.table = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(table, EMPTY);
+        for (int i = 0; i < size; i++) {
+            int slot = hash(pool, offsets[i], offsets[i + 1]) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i;
+        }
+    }
+
+    // tiktoken format: one "<base64 token> <rank>" per line. The file is mapped rather than read onto the heap, and
+    // only the decoded token bytes are kept.
+    static BpeRanks load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] pool = new byte[Math.max(16, (int) Math.min(Integer.MAX_VALUE - 8, channel.size() / 2))];
+            int[] offsets = new int[1024];
+            int[] ranks = new int[1024];
+            int size = 0;
+            int used = 0;
+
+            int limit = mapped.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && mapped.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int space = lineStart;
+                while (space < lineEnd && mapped.get(space) != ' ') {
+                    space++;
+                }
+                if (space > lineStart && space < lineEnd) {
+                    ByteBuffer token = decoder.decode(mapped.slice(lineStart, space - lineStart));
+                    int length = token.remaining();
+                    if (size + 1 >= offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                        ranks = Arrays.copyOf(ranks, ranks.length * 2);
+                    }
+                    if (used + length > pool.length) {
+                        pool = Arrays.copyOf(pool, Math.max(pool.length * 2, used + length));
+                    }
+                    offsets[size] = used;
+                    ranks[size] = parseRank(mapped, space + 1, lineEnd, file);
+                    token.get(pool, used, length);
+                    used += length;
+                    size++;
+                }
+                lineStart = lineEnd + 1;
+            }
+            offsets[size] = used;
+            return new BpeRanks(Arrays.copyOf(pool, used), offsets, ranks, size);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int rank(byte[] bytes, int start, int end) {
+        int slot = hash(bytes, start, end) & mask;
+        int index;
+        while ((index = table[slot]) != EMPTY) {
+            if (Arrays.equals(pool, offsets[index], offsets[index + 1], bytes, start, end)) {
+                return ranks[index];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int parseRank(ByteBuffer buffer, int start, int end, Path file) {
+        int rank = 0;
+        int i = start;
+        while (i < end && buffer.get(i) != '\r') {
+            byte b = buffer.get(i++);
+            if (b < '0' || b > '9') {
+                throw new IllegalStateException("Invalid rank in " + file + " at byte " + i);
+            }
+            rank = rank * 10 + (b - '0');
+        }
+        return rank;
+    }
+
+    private static int hash(byte[] bytes, int start, int end) {
+        int h = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            h = (h ^ bytes[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,83 @@
+package com.minichat.api.tokenizer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+final class BpeTokenCounter implements TokenCounter {
+
+    private final String encoding;
+    private final BpeRanks ranks;
+    private final Pattern pattern;
+
+    BpeTokenCounter(String encoding, BpeRanks ranks, Pattern pattern) {
+        this.encoding = encoding;
+        this.ranks = ranks;
+        this.pattern = pattern;
+    }
+
+    @Override
+    public String encoding() {
+        return encoding;
+    }
+
+    @Override
+    public int count(String text) {
+        int count = 0;
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            byte[] piece = matcher.group().getBytes(StandardCharsets.UTF_8);
+            count += ranks.rank(piece, 0, piece.length) >= 0 ? 1 : mergedParts(piece);
+        }
+        return count;
+    }
+
+    // Byte-pair merge as in tiktoken: repeatedly join the adjacent pair with the lowest rank. Only the number of
+    // parts left is needed, so token ids are never materialized.
+    private int mergedParts(byte[] piece) {
+        int size = piece.length + 1;
+        if (size <= 2) {
+            return size - 1;
+        }
+        int[] bounds = new int[size];
+        for (int i = 0; i < size; i++) {
+            bounds[i] = i;
+        }
+        int[] pairRanks = new int[size - 2];
+        for (int i = 0; i < size - 2; i++) {
+            pairRanks[i] = pairRank(piece, bounds, i, size);
+        }
+
+        while (size > 2) {
+            int min = Integer.MAX_VALUE;
+            int index = -1;
+            for (int i = 0; i < size - 2; i++) {
+                if (pairRanks[i] < min) {
+                    min = pairRanks[i];
+                    index = i;
+                }
+            }
+            if (index < 0) {
+                break;
+            }
+            System.arraycopy(bounds, index + 2, bounds, index + 1, size - index - 2);
+            System.arraycopy(pairRanks, index + 2, pairRanks, index + 1, Math.max(0, size - index - 4));
+            size--;
+            if (index < size - 2) {
+                pairRanks[index] = pairRank(piece, bounds, index, size);
+            }
+            if (index > 0) {
+                pairRanks[index - 1] = pairRank(piece, bounds, index - 1, size);
+            }
+        }
+        return size - 1;
+    }
+
+    private int pairRank(byte[] piece, int[] bounds, int index, int size) {
+        if (index + 2 >= size) {
+            return Integer.MAX_VALUE;
+        }
+        int rank = ranks.rank(piece, bounds[index], bounds[index + 2]);
+        return rank < 0 ? Integer.MAX_VALUE : rank;
+    }
+}
@@ -0,0 +1,20 @@
+package com.minichat.api.tokenizer;
+
+final class EstimateTokenCounter implements TokenCounter {
+
+    private final int charsPerToken;
+
+    EstimateTokenCounter(int charsPerToken) {
+        this.charsPerToken = Math.max(1, charsPerToken);
+    }
+
+    @Override
+    public String encoding() {
+        return "estimate:" + charsPerToken;
+    }
+
+    @Override
+    public int count(String text) {
+        return (text.length() + charsPerToken - 1) / charsPerToken;
+    }
+}
@@ -0,0 +1,9 @@
+package com.minichat.api.tokenizer;
+
+public interface TokenCounter {
+
+    // Stored next to every count, so rows counted under another encoding can be found and recounted.
+    String encoding();
+
+    int count(String text);
+}
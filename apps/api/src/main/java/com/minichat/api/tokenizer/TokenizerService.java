@@ -0,0 +1,64 @@
+package com.minichat.api.tokenizer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TokenizerService implements TokenCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenizerService.class);
+
+    // Pre-tokenizer splits of the published encodings; other vocabularies must configure app.tokenizer.pattern.
+    private static final Map<String, String> PATTERNS = Map.of(
+        "cl100k_base",
+        "'(?i:[sdmt]|ll|ve|re)|[^\\r\\n\\p{L}\\p{N}]?+\\p{L}+|\\p{N}{1,3}| ?[^\\s\\p{L}\\p{N}]++[\\r\\n]*|\\s*[\\r\\n]|\\s+(?!\\S)|\\s+",
+        "o200k_base",
+        "[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]*[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]+(?i:'s|'t|'re|'ve|'m|'ll|'d)?"
+            + "|[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]+[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]*(?i:'s|'t|'re|'ve|'m|'ll|'d)?"
+            + "|\\p{N}{1,3}| ?[^\\s\\p{L}\\p{N}]+[\\r\\n/]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+"
+    );
+
+    private final TokenCounter delegate;
+
+    public TokenizerService(@Value("${app.tokenizer.encoding}") String encoding,
+                            @Value("${app.tokenizer.vocab-dir}") String vocabDir,
+                            @Value("${app.tokenizer.pattern}") String pattern,
+                            @Value("${app.quota.chars-per-token}") int charsPerToken) {
+        Path vocabulary = Path.of(vocabDir, encoding + ".tiktoken");
+        if (!Files.isReadable(vocabulary)) {
+            log.warn("Tokenizer vocabulary {} not found; storing character-based token estimates", vocabulary);
+            this.delegate = new EstimateTokenCounter(charsPerToken);
+            return;
+        }
+
+        String split = pattern == null || pattern.isBlank() ? PATTERNS.get(encoding) : pattern;
+        if (split == null) {
+            throw new IllegalStateException("No pre-tokenizer pattern for encoding " + encoding + "; set app.tokenizer.pattern");
+        }
+        try {
+            BpeRanks ranks = BpeRanks.load(vocabulary);
+            this.delegate = new BpeTokenCounter(encoding, ranks, Pattern.compile(split, Pattern.UNICODE_CHARACTER_CLASS));
+            log.info("Loaded tokenizer vocabulary {} ({} tokens)", vocabulary, ranks.size());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to load tokenizer vocabulary " + vocabulary, ex);
+        }
+    }
+
+    @Override
+    public String encoding() {
+        return delegate.encoding();
+    }
+
+    @Override
+    public int count(String text) {
+        return text == null || text.isEmpty() ? 0 : delegate.count(text);
+    }
+}
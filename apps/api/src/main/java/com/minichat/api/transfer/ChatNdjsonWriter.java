@@ -0,0 +1,52 @@
+package com.minichat.api.transfer;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.UUID;
+
+public class ChatNdjsonWriter implements Closeable {
+
+    private final JsonGenerator generator;
+
+    public ChatNdjsonWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    public void writeChat(UUID id, String title, UUID activeLeafId, Instant createdAt) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "chat");
+        generator.writeStringField("id", id.toString());
+        generator.writeStringField("title", title);
+        if (activeLeafId != null) {
+            generator.writeStringField("activeLeafId", activeLeafId.toString());
+        }
+        generator.writeStringField("createdAt", createdAt.toString());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    public void writeMessage(UUID id, UUID parentId, String role, String content, Instant createdAt) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "message");
+        generator.writeStringField("id", id.toString());
+        if (parentId != null) {
+            generator.writeStringField("parentId", parentId.toString());
+        }
+        generator.writeStringField("role", role);
+        generator.writeStringField("content", content);
+        generator.writeStringField("createdAt", createdAt.toString());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
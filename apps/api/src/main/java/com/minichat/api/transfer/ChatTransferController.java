@@ -0,0 +1,67 @@
+package com.minichat.api.transfer;
+
+import com.minichat.api.chat.ChatDtos;
+import com.minichat.api.chat.ChatEntity;
+import com.minichat.api.common.SecurityUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/chats")
+public class ChatTransferController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ChatTransferService transferService;
+
+    public ChatTransferController(ChatTransferService transferService) {
+        this.transferService = transferService;
+    }
+
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable("id") UUID chatId,
+                                                        @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        ChatEntity chat = transferService.loadExportable(SecurityUtils.currentUserId(), chatId);
+        String filename = "chat-" + chatId + (gzip ? ".ndjson.gz" : ".ndjson");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024)) {
+                    transferService.export(chat, gzipOut);
+                }
+            } else {
+                transferService.export(chat, out);
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(gzip ? MediaType.APPLICATION_OCTET_STREAM : NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
+    }
+
+    @PostMapping("/import")
+    public ChatDtos.ChatResponse importChat(@RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                            HttpServletRequest request) throws IOException {
+        InputStream in = request.getInputStream();
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (gzip || (encoding != null && encoding.contains("gzip"))) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return transferService.importChat(SecurityUtils.currentUserId(), in);
+    }
+}
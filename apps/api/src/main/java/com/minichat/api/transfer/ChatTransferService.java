@@ -0,0 +1,250 @@
+package com.minichat.api.transfer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minichat.api.archive.ArchivedMessage;
+import com.minichat.api.archive.ChatArchiveService;
+import com.minichat.api.chat.ChatDtos;
+import com.minichat.api.chat.ChatEntity;
+import com.minichat.api.chat.ChatRepository;
+import com.minichat.api.common.LongPairHashMap;
+import com.minichat.api.common.NotFoundException;
+import com.minichat.api.common.UuidV7Generator;
+import com.minichat.api.event.DomainEventPublisher;
+import com.minichat.api.message.MessageContentCodec;
+import com.minichat.api.message.MessageRepository;
+import com.minichat.api.tokenizer.TokenizerService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class ChatTransferService {
+
+    private static final Set<String> ROLES = Set.of("system", "user", "assistant");
+    private static final String DEFAULT_IMPORT_TITLE = "Imported Chat";
+
+    private final ChatRepository chatRepository;
+    private final MessageRepository messageRepository;
+    private final TokenizerService tokenizer;
+    private final DomainEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final MessageContentCodec contentCodec;
+    private final ChatArchiveService archiveService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int importMaxMessages;
+
+    public ChatTransferService(ChatRepository chatRepository,
+                               MessageRepository messageRepository,
+                               TokenizerService tokenizer,
+                               DomainEventPublisher eventPublisher,
+                               ObjectMapper objectMapper,
+                               MessageContentCodec contentCodec,
+                               ChatArchiveService archiveService,
+                               TransactionTemplate transactionTemplate,
+                               DataSource dataSource,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${app.transfer.fetch-size}") int fetchSize,
+                               @Value("${app.transfer.batch-size}") int batchSize,
+                               @Value("${app.transfer.import-max-messages}") int importMaxMessages) {
+        this.chatRepository = chatRepository;
+        this.messageRepository = messageRepository;
+        this.tokenizer = tokenizer;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.contentCodec = contentCodec;
+        this.archiveService = archiveService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.importMaxMessages = importMaxMessages;
+    }
+
+    @Transactional(readOnly = true)
+    public ChatEntity loadExportable(UUID userId, UUID chatId) {
+        return chatRepository.findByIdAndUserId(chatId, userId)
+            .orElseThrow(() -> new NotFoundException("Chat not found"));
+    }
+
+    public void export(ChatEntity chat, OutputStream out) throws IOException {
+        try (ChatNdjsonWriter writer = new ChatNdjsonWriter(objectMapper, out)) {
+            writer.writeChat(chat.getId(), chat.getTitle(), chat.getActiveLeafId(), chat.getCreatedAt());
+            Optional<ChatArchiveService.ArchivedChat> archived = chat.getArchivedAt() == null
+                ? Optional.empty()
+                : archiveService.find(chat.getId());
+            if (archived.isPresent()) {
+                for (ArchivedMessage message : archived.get().messages()) {
+                    writer.writeMessage(message.id(), message.parentId(), message.role(), message.content(),
+                        message.createdAt());
+                }
+                return;
+            }
+            // Autocommit must be off for the Postgres driver to honour the fetch size as a server-side cursor.
+            readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(
+                "SELECT id, parent_id, role, content, content_packed, created_at FROM messages WHERE chat_id = ? ORDER BY created_at ASC, id ASC",
+                rs -> {
+                    try {
+                        String content = contentCodec.read(rs.getString("content"), rs.getBytes("content_packed"));
+                        writer.writeMessage(rs.getObject("id", UUID.class), rs.getObject("parent_id", UUID.class),
+                            rs.getString("role"), content, rs.getTimestamp("created_at").toInstant());
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                },
+                chat.getId()));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    @Transactional
+    public ChatDtos.ChatResponse importChat(UUID userId, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        JsonNode header = readHeader(reader);
+
+        ChatEntity chat = new ChatEntity();
+        chat.setUserId(userId);
+        chat.setTitle(normalizeTitle(header.path("title").asText(null)));
+        chat = chatRepository.saveAndFlush(chat);
+
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        // Exported ids are replaced with fresh ones; parents always precede children because exports run oldest first.
+        LongPairHashMap idMap = new LongPairHashMap(batchSize);
+        UUID previousId = null;
+        int imported = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = objectMapper.readTree(line);
+            if (!"message".equals(node.path("type").asText())) {
+                throw new IllegalArgumentException("Unexpected record type on line " + (imported + 2));
+            }
+            if (++imported > importMaxMessages) {
+                throw new IllegalArgumentException("Import exceeds " + importMaxMessages + " messages");
+            }
+            Object[] row = toRow(chat.getId(), userId, node, idMap, previousId);
+            previousId = (UUID) row[0];
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                insertBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch);
+        }
+
+        UUID activeLeafId = header.hasNonNull("activeLeafId") ? remap(idMap, header.get("activeLeafId").asText()) : previousId;
+        if (activeLeafId != null) {
+            chatRepository.advanceLeaf(chat.getId(), activeLeafId, Instant.now());
+        }
+        messageRepository.recomputeTokenPrefixes(chat.getId());
+
+        eventPublisher.publishAudit(userId, "import_chat", Map.of(
+            "chatId", chat.getId().toString(),
+            "messages", imported
+        ));
+        return new ChatDtos.ChatResponse(chat.getId(), chat.getTitle(), chat.getCreatedAt(), chat.getUpdatedAt());
+    }
+
+    private JsonNode readHeader(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        while (line != null && line.isBlank()) {
+            line = reader.readLine();
+        }
+        if (line == null) {
+            throw new IllegalArgumentException("Import is empty");
+        }
+        JsonNode header = objectMapper.readTree(line);
+        if (!"chat".equals(header.path("type").asText())) {
+            throw new IllegalArgumentException("Import must start with a chat record");
+        }
+        return header;
+    }
+
+    private Object[] toRow(UUID chatId, UUID userId, JsonNode node, LongPairHashMap idMap, UUID previousId) {
+        String role = node.path("role").asText();
+        if (!ROLES.contains(role)) {
+            throw new IllegalArgumentException("Unsupported message role: " + role);
+        }
+        JsonNode content = node.get("content");
+        if (content == null || !content.isTextual()) {
+            throw new IllegalArgumentException("Message content is required");
+        }
+        Instant createdAt = node.hasNonNull("createdAt") ? Instant.parse(node.get("createdAt").asText()) : Instant.now();
+        // Files written before message trees have no ids or parents and import as a single linear branch.
+        UUID parentId = node.has("parentId") ? remap(idMap, node.path("parentId").asText(null)) : previousId;
+        UUID id = UuidV7Generator.next();
+        if (node.hasNonNull("id")) {
+            UUID exportedId = parseId(node.get("id").asText());
+            idMap.put(exportedId.getMostSignificantBits(), exportedId.getLeastSignificantBits(),
+                id.getMostSignificantBits(), id.getLeastSignificantBits());
+        }
+        String text = content.asText();
+        byte[] packed = contentCodec.pack(text);
+        return new Object[] {id, chatId, userId, parentId, role, packed == null ? text : null, packed, text,
+            tokenizer.count(text), tokenizer.encoding(), Timestamp.from(createdAt)};
+    }
+
+    private UUID remap(LongPairHashMap idMap, String exportedId) {
+        if (exportedId == null) {
+            return null;
+        }
+        UUID id = parseId(exportedId);
+        int index = idMap.indexOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown message id: " + exportedId);
+        }
+        return new UUID(idMap.valueHi(index), idMap.valueLo(index));
+    }
+
+    private UUID parseId(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid message id: " + value);
+        }
+    }
+
+    private void insertBatch(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO messages (id, chat_id, user_id, parent_id, role, content, content_packed, content_tsv,
+                                  token_count, token_encoding, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, to_tsvector('simple', ?), ?, ?, ?)
+            """, batch);
+    }
+
+    private String normalizeTitle(String title) {
+        if (title == null || title.isBlank()) {
+            return DEFAULT_IMPORT_TITLE;
+        }
+        String trimmed = title.trim();
+        return trimmed.length() > 255 ? trimmed.substring(0, 255) : trimmed;
+    }
+}
@@ -0,0 +1,31 @@
+package com.minichat.api.usage;
+
+import com.minichat.api.common.SecurityUtils;
+import java.time.Instant;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/usage")
+public class UsageController {
+
+    private final UsageService usageService;
+
+    public UsageController(UsageService usageService) {
+        this.usageService = usageService;
+    }
+
+    @GetMapping
+    public UsageDtos.UsageResponse usage(@RequestParam(value = "from", required = false) Instant from,
+                                         @RequestParam(value = "to", required = false) Instant to) {
+        return usageService.usage(SecurityUtils.currentUserId(), from, to);
+    }
+
+    @GetMapping("/generations")
+    public UsageDtos.GenerationHistoryResponse generations(@RequestParam(value = "cursor", required = false) String cursor,
+                                                           @RequestParam(value = "limit", required = false) Integer limit) {
+        return usageService.history(SecurityUtils.currentUserId(), cursor, limit);
+    }
+}
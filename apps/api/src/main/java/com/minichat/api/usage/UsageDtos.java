@@ -0,0 +1,48 @@
+package com.minichat.api.usage;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public final class UsageDtos {
+    private UsageDtos() {
+    }
+
+    public record ModelUsage(
+        String model,
+        long inputTokens,
+        long outputTokens,
+        long generations
+    ) {
+    }
+
+    public record UsageResponse(
+        Instant from,
+        Instant to,
+        long inputTokens,
+        long outputTokens,
+        long generations,
+        List<ModelUsage> models
+    ) {
+    }
+
+    public record GenerationHistoryItem(
+        UUID generationId,
+        UUID chatId,
+        String model,
+        String status,
+        Integer inputTokens,
+        Integer outputTokens,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt,
+        String errorCode
+    ) {
+    }
+
+    public record GenerationHistoryResponse(
+        List<GenerationHistoryItem> items,
+        String nextCursor
+    ) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.minichat.api.usage;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class UsageRepository {
+
+    // Ordered by created_at, the partition key: the scan reads the monthly partitions newest first and stops once
+    // the page is full, and a cursor also prunes every month after it.
+    private static final String HISTORY_SQL = """
+        SELECT id, chat_id, model, status, input_tokens, output_tokens, created_at, started_at, finished_at, error_code
+        FROM generations
+        WHERE user_id = :userId
+          AND started_at IS NOT NULL
+          %s
+        ORDER BY created_at DESC, id DESC
+        LIMIT :limit
+        """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public UsageRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Watermarks findWatermarks() {
+        List<Watermarks> rows = jdbcTemplate.query(
+            "SELECT hourly_through, daily_through FROM usage_rollup_state WHERE id = 1",
+            (rs, rowNum) -> {
+                Timestamp hourly = rs.getTimestamp("hourly_through");
+                Date daily = rs.getDate("daily_through");
+                return new Watermarks(hourly == null ? null : hourly.toInstant(), daily == null ? null : daily.toLocalDate());
+            });
+        return rows.isEmpty() ? new Watermarks(null, null) : rows.get(0);
+    }
+
+    public List<UsageDtos.ModelUsage> sumByModel(UUID userId, List<UsageSegment> segments) {
+        MapSqlParameterSource params = new MapSqlParameterSource("userId", userId);
+        List<String> parts = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            UsageSegment segment = segments.get(i);
+            String start = "start" + i;
+            String end = "end" + i;
+            switch (segment.source()) {
+                case DAILY -> {
+                    parts.add("SELECT model, input_tokens, output_tokens, generations FROM usage_daily "
+                        + "WHERE user_id = :userId AND day >= :" + start + " AND day < :" + end);
+                    params.addValue(start, Date.valueOf(UsageSegment.utcDate(segment.start())));
+                    params.addValue(end, Date.valueOf(UsageSegment.utcDate(segment.end())));
+                }
+                case HOURLY -> {
+                    parts.add("SELECT model, input_tokens, output_tokens, generations FROM usage_hourly "
+                        + "WHERE user_id = :userId AND hour >= :" + start + " AND hour < :" + end);
+                    params.addValue(start, Timestamp.from(segment.start()));
+                    params.addValue(end, Timestamp.from(segment.end()));
+                }
+                case LIVE -> {
+                    parts.add("SELECT model, input_tokens, output_tokens, 1 FROM usage_events "
+                        + "WHERE user_id = :userId AND created_at >= :" + start + " AND created_at < :" + end);
+                    params.addValue(start, Timestamp.from(segment.start()));
+                    params.addValue(end, Timestamp.from(segment.end()));
+                }
+            }
+        }
+
+        String sql = "SELECT model, sum(input_tokens) AS input_tokens, sum(output_tokens) AS output_tokens, "
+            + "sum(generations) AS generations FROM (" + String.join(" UNION ALL ", parts) + ") u "
+            + "GROUP BY model ORDER BY model";
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new UsageDtos.ModelUsage(
+            rs.getString("model"),
+            rs.getLong("input_tokens"),
+            rs.getLong("output_tokens"),
+            rs.getLong("generations")
+        ));
+    }
+
+    public List<UsageDtos.GenerationHistoryItem> findGenerations(UUID userId, Instant cursorCreatedAt, UUID cursorId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("userId", userId)
+            .addValue("limit", limit);
+        String cursorClause = "";
+        if (cursorCreatedAt != null) {
+            cursorClause = "AND created_at <= :cursorCreatedAt AND (created_at, id) < (:cursorCreatedAt, :cursorId)";
+            params.addValue("cursorCreatedAt", Timestamp.from(cursorCreatedAt));
+            params.addValue("cursorId", cursorId);
+        }
+
+        return jdbcTemplate.query(HISTORY_SQL.formatted(cursorClause), params, (rs, rowNum) -> {
+            Timestamp finishedAt = rs.getTimestamp("finished_at");
+            return new UsageDtos.GenerationHistoryItem(
+                rs.getObject("id", UUID.class),
+                rs.getObject("chat_id", UUID.class),
+                rs.getString("model"),
+                rs.getString("status"),
+                rs.getObject("input_tokens", Integer.class),
+                rs.getObject("output_tokens", Integer.class),
+                rs.getTimestamp("created_at").toInstant(),
+                rs.getTimestamp("started_at").toInstant(),
+                finishedAt == null ? null : finishedAt.toInstant(),
+                rs.getString("error_code")
+            );
+        });
+    }
+
+    public record Watermarks(Instant hourlyThrough, LocalDate dailyThrough) {
+    }
+}
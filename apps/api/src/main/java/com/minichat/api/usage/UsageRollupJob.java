@@ -0,0 +1,129 @@
+package com.minichat.api.usage;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class UsageRollupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(UsageRollupJob.class);
+
+    private static final String HOURLY_SQL = """
+        INSERT INTO usage_hourly (user_id, hour, model, input_tokens, output_tokens, generations)
+        SELECT user_id, date_bin('1 hour', created_at, TIMESTAMPTZ '2000-01-01 00:00:00+00'), model,
+               sum(input_tokens), sum(output_tokens), count(*)
+        FROM usage_events
+        WHERE created_at >= ? AND created_at < ?
+        GROUP BY 1, 2, 3
+        ON CONFLICT (user_id, hour, model) DO UPDATE SET
+            input_tokens = EXCLUDED.input_tokens,
+            output_tokens = EXCLUDED.output_tokens,
+            generations = EXCLUDED.generations
+        """;
+
+    private static final String DAILY_SQL = """
+        INSERT INTO usage_daily (user_id, day, model, input_tokens, output_tokens, generations)
+        SELECT user_id, (hour AT TIME ZONE 'UTC')::date, model,
+               sum(input_tokens), sum(output_tokens), sum(generations)
+        FROM usage_hourly
+        WHERE hour >= ? AND hour < ?
+        GROUP BY 1, 2, 3
+        ON CONFLICT (user_id, day, model) DO UPDATE SET
+            input_tokens = EXCLUDED.input_tokens,
+            output_tokens = EXCLUDED.output_tokens,
+            generations = EXCLUDED.generations
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration grace;
+    private final int maxHoursPerRun;
+    private final AtomicReference<Instant> hourlyThrough = new AtomicReference<>();
+
+    public UsageRollupJob(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          MeterRegistry registry,
+                          @Value("${app.usage.rollup.enabled}") boolean enabled,
+                          @Value("${app.usage.rollup.grace-seconds}") long graceSeconds,
+                          @Value("${app.usage.rollup.max-hours-per-run}") int maxHoursPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.grace = Duration.ofSeconds(graceSeconds);
+        this.maxHoursPerRun = maxHoursPerRun;
+
+        Gauge.builder("minichat.usage.rollup.lag.seconds", hourlyThrough,
+                ref -> ref.get() == null ? Double.NaN : Duration.between(ref.get(), Instant.now()).toSeconds())
+            .description("Age of the newest fully rolled-up usage hour")
+            .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.usage.rollup.interval-ms}", initialDelayString = "${app.usage.rollup.interval-ms}")
+    public void rollUp() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> rollUp(Instant.now()));
+        } catch (Exception ex) {
+            log.warn("Usage rollup failed: {}", ex.getMessage());
+        }
+    }
+
+    private void rollUp(Instant now) {
+        // The row lock keeps concurrent API nodes from rolling up the same range.
+        UsageRepository.Watermarks state = jdbcTemplate.queryForObject(
+            "SELECT hourly_through, daily_through FROM usage_rollup_state WHERE id = 1 FOR UPDATE",
+            (rs, rowNum) -> {
+                Timestamp hourly = rs.getTimestamp("hourly_through");
+                Date daily = rs.getDate("daily_through");
+                return new UsageRepository.Watermarks(hourly == null ? null : hourly.toInstant(), daily == null ? null : daily.toLocalDate());
+            });
+
+        Instant target = UsageSegment.floorHour(now.minus(grace));
+        Instant hourly = state.hourlyThrough();
+        if (hourly == null) {
+            Timestamp first = jdbcTemplate.queryForObject("SELECT min(created_at) FROM usage_events", Timestamp.class);
+            hourly = first == null ? target : UsageSegment.floorHour(first.toInstant());
+        }
+        if (hourly.isBefore(target)) {
+            Instant end = hourly.plus(maxHoursPerRun, ChronoUnit.HOURS);
+            end = end.isBefore(target) ? end : target;
+            jdbcTemplate.update(HOURLY_SQL, Timestamp.from(hourly), Timestamp.from(end));
+            hourly = end;
+        }
+
+        LocalDate dayTarget = UsageSegment.utcDate(hourly);
+        LocalDate daily = state.dailyThrough();
+        if (daily == null) {
+            Timestamp first = jdbcTemplate.queryForObject("SELECT min(hour) FROM usage_hourly", Timestamp.class);
+            daily = first == null ? dayTarget : UsageSegment.utcDate(first.toInstant());
+        }
+        if (daily.isBefore(dayTarget)) {
+            jdbcTemplate.update(DAILY_SQL,
+                Timestamp.from(daily.atStartOfDay(ZoneOffset.UTC).toInstant()),
+                Timestamp.from(dayTarget.atStartOfDay(ZoneOffset.UTC).toInstant()));
+            daily = dayTarget;
+        }
+
+        jdbcTemplate.update("UPDATE usage_rollup_state SET hourly_through = ?, daily_through = ? WHERE id = 1",
+            Timestamp.from(hourly), Date.valueOf(daily));
+        hourlyThrough.set(hourly);
+    }
+}
@@ -0,0 +1,71 @@
+package com.minichat.api.usage;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+public record UsageSegment(Source source, Instant start, Instant end) {
+
+    public enum Source {
+        DAILY,
+        HOURLY,
+        LIVE
+    }
+
+    // Covers [from, to) with whole UTC days below the daily watermark, whole hours below the hourly
+    // watermark, and raw events for the partial edges and the still-open buckets.
+    public static List<UsageSegment> plan(Instant from, Instant to, Instant hourlyThrough, LocalDate dailyThrough) {
+        Instant hourMark = hourlyThrough == null ? Instant.EPOCH : hourlyThrough;
+        Instant dayMark = dailyThrough == null ? Instant.EPOCH : dailyThrough.atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        List<UsageSegment> segments = new ArrayList<>();
+        Instant cursor = from;
+        while (cursor.isBefore(to)) {
+            Instant nextDay = floorDay(cursor).plus(1, ChronoUnit.DAYS);
+            Instant nextHour = floorHour(cursor).plus(1, ChronoUnit.HOURS);
+            Source source;
+            Instant end;
+            if (cursor.equals(floorDay(cursor)) && !nextDay.isAfter(to) && !nextDay.isAfter(dayMark)) {
+                source = Source.DAILY;
+                end = min(floorDay(to), dayMark);
+            } else if (cursor.equals(floorHour(cursor)) && !nextHour.isAfter(to) && !nextHour.isAfter(hourMark)) {
+                source = Source.HOURLY;
+                end = min(min(floorHour(to), hourMark), nextDay);
+            } else if (cursor.isBefore(hourMark)) {
+                source = Source.LIVE;
+                end = min(to, nextHour);
+            } else {
+                source = Source.LIVE;
+                end = to;
+            }
+
+            UsageSegment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (last != null && last.source() == source && last.end().equals(cursor)) {
+                segments.set(segments.size() - 1, new UsageSegment(source, last.start(), end));
+            } else {
+                segments.add(new UsageSegment(source, cursor, end));
+            }
+            cursor = end;
+        }
+        return segments;
+    }
+
+    static Instant floorHour(Instant instant) {
+        return instant.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    static Instant floorDay(Instant instant) {
+        return instant.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    static LocalDate utcDate(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,98 @@
+package com.minichat.api.usage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class UsageService {
+
+    private static final Duration DEFAULT_RANGE = Duration.ofDays(30);
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    private final UsageRepository usageRepository;
+
+    public UsageService(UsageRepository usageRepository) {
+        this.usageRepository = usageRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public UsageDtos.UsageResponse usage(UUID userId, Instant from, Instant to) {
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(DEFAULT_RANGE) : from;
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+
+        UsageRepository.Watermarks watermarks = usageRepository.findWatermarks();
+        List<UsageSegment> segments = UsageSegment.plan(start, end, watermarks.hourlyThrough(), watermarks.dailyThrough());
+        List<UsageDtos.ModelUsage> models = usageRepository.sumByModel(userId, segments);
+
+        long inputTokens = 0;
+        long outputTokens = 0;
+        long generations = 0;
+        for (UsageDtos.ModelUsage model : models) {
+            inputTokens += model.inputTokens();
+            outputTokens += model.outputTokens();
+            generations += model.generations();
+        }
+        return new UsageDtos.UsageResponse(start, end, inputTokens, outputTokens, generations, models);
+    }
+
+    @Transactional(readOnly = true)
+    public UsageDtos.GenerationHistoryResponse history(UUID userId, String cursor, Integer limit) {
+        int pageSize = sanitizeLimit(limit);
+        Instant cursorCreatedAt = null;
+        UUID cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            cursorCreatedAt = Instant.EPOCH.plus(Long.parseLong(parts[0]), ChronoUnit.MICROS);
+            cursorId = UUID.fromString(parts[1]);
+        }
+
+        List<UsageDtos.GenerationHistoryItem> rows = usageRepository.findGenerations(userId, cursorCreatedAt, cursorId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<UsageDtos.GenerationHistoryItem> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            UsageDtos.GenerationHistoryItem last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.createdAt(), last.generationId());
+        }
+        return new UsageDtos.GenerationHistoryResponse(items, nextCursor);
+    }
+
+    private int sanitizeLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(MAX_LIMIT, limit));
+    }
+
+    private String encodeCursor(Instant createdAt, UUID id) {
+        String raw = ChronoUnit.MICROS.between(Instant.EPOCH, createdAt) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("cursor is invalid");
+            }
+            Long.parseLong(parts[0]);
+            UUID.fromString(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("cursor is invalid");
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.minichat.api.warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.minichat.api.auth.JwtTokenProvider;
+import com.minichat.api.generation.GenerationDtos;
+import com.minichat.api.generation.GenerationStreamSupport;
+import com.minichat.api.generation.SseDeltaCoalescer;
+import com.minichat.api.inference.InferenceClient;
+import com.minichat.api.message.MessageDtos;
+import com.minichat.api.message.MessageEntity;
+import com.minichat.api.message.MessageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+// Runs before ApplicationReadyEvent, so readiness stays REFUSING_TRAFFIC until the hot paths have been compiled.
+@Component
+public class JitWarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(JitWarmupRunner.class);
+    private static final int PAGE_SIZE = 20;
+    private static final int STREAM_DELTAS = 64;
+
+    private final JwtTokenProvider tokenProvider;
+    private final MessageService messageService;
+    private final InferenceClient inferenceClient;
+    private final GenerationStreamSupport streamSupport;
+    private final ObjectMapper objectMapper;
+    private final ApplicationContext applicationContext;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final int iterations;
+    private final long maxDurationMs;
+    private final int httpEvery;
+
+    public JitWarmupRunner(JwtTokenProvider tokenProvider,
+                           MessageService messageService,
+                           InferenceClient inferenceClient,
+                           GenerationStreamSupport streamSupport,
+                           ObjectMapper objectMapper,
+                           ApplicationContext applicationContext,
+                           MeterRegistry registry,
+                           @Value("${app.warmup.enabled}") boolean enabled,
+                           @Value("${app.warmup.iterations}") int iterations,
+                           @Value("${app.warmup.max-duration-ms}") long maxDurationMs,
+                           @Value("${app.warmup.http-every}") int httpEvery) {
+        this.tokenProvider = tokenProvider;
+        this.messageService = messageService;
+        this.inferenceClient = inferenceClient;
+        this.streamSupport = streamSupport;
+        this.objectMapper = objectMapper;
+        this.applicationContext = applicationContext;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDurationMs = maxDurationMs;
+        this.httpEvery = httpEvery;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || iterations <= 0) {
+            return;
+        }
+
+        String token = tokenProvider.generateAccessToken(UUID.randomUUID(), "warmup@minichat.local");
+        List<MessageEntity> page = syntheticPage();
+        byte[] inferenceStream = syntheticInferenceStream();
+        byte[] createRequest = syntheticCreateRequest();
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        URI healthz = localUri("/healthz");
+
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+        int completed = 0;
+        try {
+            while (completed < iterations && System.nanoTime() < deadline) {
+                tokenProvider.parse(token);
+                objectMapper.writeValueAsBytes(messageService.toPage(page, PAGE_SIZE));
+                relay(inferenceStream);
+                objectMapper.readValue(createRequest, GenerationDtos.CreateGenerationRequest.class);
+                objectMapper.writeValueAsBytes(new GenerationDtos.CreateGenerationResponse(UUID.randomUUID()));
+                objectMapper.writeValueAsBytes(new GenerationDtos.CancelGenerationResponse("accepted"));
+                if (healthz != null && httpEvery > 0 && completed % httpEvery == 0) {
+                    // Goes through the security filter chain and JwtAuthenticationFilter like a real request.
+                    httpClient.send(HttpRequest.newBuilder(healthz)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .GET()
+                        .build(), HttpResponse.BodyHandlers.discarding());
+                }
+                completed++;
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("JIT warm-up stopped after {} iterations: {}", completed, ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        long elapsed = System.nanoTime() - startedAt;
+        Timer.builder("minichat.warmup.duration")
+            .description("Time spent driving synthetic traffic through hot paths before readiness")
+            .register(registry)
+            .record(elapsed, TimeUnit.NANOSECONDS);
+        Counter.builder("minichat.warmup.iterations")
+            .description("Warm-up iterations completed before readiness")
+            .register(registry)
+            .increment(completed);
+        log.info("JIT warm-up finished {} of {} iterations in {} ms", completed, iterations, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private void relay(byte[] inferenceStream) throws IOException {
+        StringBuilder assistantText = new StringBuilder();
+        try (SseDeltaCoalescer coalescer = streamSupport.openCoalescer(new SseDeltaCoalescer.Sink() {
+            @Override
+            public void delta(String text) {
+                ObjectNode event = objectMapper.createObjectNode();
+                event.put("type", "delta");
+                event.put("delta", text);
+                event.toString();
+            }
+
+            @Override
+            public void event(JsonNode event) {
+                event.toString();
+            }
+        })) {
+            inferenceClient.readEvents(new ByteArrayInputStream(inferenceStream), event -> {
+                try {
+                    if ("delta".equals(event.path("type").asText())) {
+                        String delta = event.path("delta").asText("");
+                        assistantText.append(delta);
+                        coalescer.delta(delta);
+                    } else {
+                        coalescer.event(event);
+                    }
+                } catch (IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+        }
+    }
+
+    private List<MessageEntity> syntheticPage() {
+        UUID chatId = UUID.randomUUID();
+        List<MessageEntity> page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            MessageEntity message = new MessageEntity();
+            message.setChatId(chatId);
+            message.setRole(i % 2 == 0 ? "user" : "assistant");
+            message.setContent("Warm-up message " + i + " with enough text to look like a short chat turn.");
+            message.prePersist();
+            page.add(message);
+        }
+        return page;
+    }
+
+    private byte[] syntheticInferenceStream() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < STREAM_DELTAS; i++) {
+            body.append("data: {\"type\":\"delta\",\"delta\":\" token").append(i).append("\"}\n\n");
+        }
+        body.append("data: {\"type\":\"usage\",\"inputTokens\":42,\"outputTokens\":").append(STREAM_DELTAS).append("}\n\n");
+        body.append("data: {\"type\":\"done\"}\n\n");
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] syntheticCreateRequest() {
+        return ("{\"userMessage\":\"Hello there\",\"model\":\"warmup\",\"systemPrompt\":\"Be brief.\","
+            + "\"temperature\":0.7,\"maxTokens\":256,\"requestId\":\"warmup\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private URI localUri(String path) {
+        if (applicationContext instanceof WebServerApplicationContext webContext && webContext.getWebServer() != null) {
+            return URI.create("http://localhost:" + webContext.getWebServer().getPort() + path);
+        }
+        return null;
+    }
+}
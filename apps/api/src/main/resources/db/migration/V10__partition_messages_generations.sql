@@ -0,0 +1,134 @@
+-- messages: every query is scoped to one chat, so hash partitioning on chat_id prunes each of them to a single
+-- partition. The partition count is fixed here; changing it means copying the table again.
+CREATE TABLE messages_partitioned (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    chat_id UUID NOT NULL,
+    parent_id UUID,
+    role VARCHAR(20) NOT NULL,
+    content TEXT,
+    content_packed BYTEA,
+    content_tsv tsvector,
+    token_count INT,
+    token_encoding VARCHAR(32),
+    token_prefix BIGINT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT chk_messages_content_present CHECK (content IS NOT NULL OR content_packed IS NOT NULL)
+) PARTITION BY HASH (chat_id);
+
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF messages_partitioned FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+            'messages_p' || lpad(i::text, 2, '0'), i);
+    END LOOP;
+END $$;
+
+INSERT INTO messages_partitioned (id, chat_id, parent_id, role, content, content_packed, content_tsv,
+                                  token_count, token_encoding, token_prefix, created_at)
+SELECT id, chat_id, parent_id, role, content, content_packed, content_tsv,
+       token_count, token_encoding, token_prefix, created_at
+FROM messages;
+
+DROP TABLE messages;
+ALTER TABLE messages_partitioned RENAME TO messages;
+
+-- Unique constraints on a partitioned table must include the partition key; ids are still generated unique.
+ALTER TABLE messages ADD PRIMARY KEY (id, chat_id);
+ALTER TABLE messages ADD CONSTRAINT messages_chat_id_fkey FOREIGN KEY (chat_id) REFERENCES chats(id) ON DELETE CASCADE;
+CREATE INDEX idx_messages_chat_id_created_at ON messages(chat_id, created_at ASC);
+CREATE INDEX idx_messages_content_tsv ON messages USING GIN (content_tsv);
+CREATE INDEX idx_messages_parent_id ON messages(parent_id, created_at) WHERE parent_id IS NOT NULL;
+CREATE INDEX idx_messages_chat_roots ON messages(chat_id, created_at) WHERE parent_id IS NULL;
+CREATE INDEX idx_messages_token_prefix_pending ON messages(chat_id) WHERE token_prefix IS NULL;
+
+-- generations: monthly UTC ranges on created_at, so retention is a partition detach instead of a bulk delete.
+-- PartitionManager keeps months ahead of now attached; this creates the ones the existing rows need.
+-- created_at is the timestamp of the row's UUIDv7 id, so a lookup by id can name its partition. Older rows with
+-- random ids take their start time instead.
+CREATE TABLE generations_partitioned (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    chat_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    parent_message_id UUID,
+    status VARCHAR(30) NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    system_prompt TEXT,
+    temperature DOUBLE PRECISION,
+    max_tokens INTEGER,
+    input_tokens INTEGER,
+    output_tokens INTEGER,
+    started_at TIMESTAMPTZ,
+    finished_at TIMESTAMPTZ,
+    error_code VARCHAR(100),
+    error_message TEXT,
+    request_id VARCHAR(255),
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+) PARTITION BY RANGE (created_at);
+
+DO $$
+DECLARE
+    bound TIMESTAMP;
+    last_bound TIMESTAMP := date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '3 months';
+BEGIN
+    SELECT date_trunc('month', min(CASE
+               WHEN substr(id::text, 15, 1) = '7'
+                   THEN timestamptz 'epoch' + ('x' || substr(replace(id::text, '-', ''), 1, 12))::bit(48)::bigint * INTERVAL '1 millisecond'
+               ELSE coalesce(started_at, finished_at, now())
+           END) AT TIME ZONE 'UTC')
+    INTO bound
+    FROM generations;
+    bound := coalesce(bound, date_trunc('month', now() AT TIME ZONE 'UTC'));
+    WHILE bound <= last_bound LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF generations_partitioned FOR VALUES FROM (%L) TO (%L)',
+            'generations_p' || to_char(bound, 'YYYY_MM'),
+            bound AT TIME ZONE 'UTC',
+            (bound + INTERVAL '1 month') AT TIME ZONE 'UTC');
+        bound := bound + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO generations_partitioned (id, chat_id, user_id, parent_message_id, status, model, system_prompt, temperature,
+                                     max_tokens, input_tokens, output_tokens, started_at, finished_at, error_code,
+                                     error_message, request_id, created_at)
+SELECT id, chat_id, user_id, parent_message_id, status, model, system_prompt, temperature,
+       max_tokens, input_tokens, output_tokens, started_at, finished_at, error_code,
+       error_message, request_id,
+       CASE
+           WHEN substr(id::text, 15, 1) = '7'
+               THEN timestamptz 'epoch' + ('x' || substr(replace(id::text, '-', ''), 1, 12))::bit(48)::bigint * INTERVAL '1 millisecond'
+           ELSE coalesce(started_at, finished_at, now())
+       END
+FROM generations;
+
+-- A foreign key into a partitioned table must cover its partition key, and usage_events does not carry
+-- created_at. Usage rows now outlive purged or detached generations; the rollups only read usage_events.
+ALTER TABLE usage_events DROP CONSTRAINT usage_events_generation_id_fkey;
+
+DROP TABLE generations;
+ALTER TABLE generations_partitioned RENAME TO generations;
+
+ALTER TABLE generations ADD PRIMARY KEY (id, created_at);
+ALTER TABLE generations ADD CONSTRAINT generations_chat_id_fkey FOREIGN KEY (chat_id) REFERENCES chats(id) ON DELETE CASCADE;
+ALTER TABLE generations ADD CONSTRAINT generations_user_id_fkey FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+-- Usage history pages by created_at, which walks the monthly partitions newest first and stops at the page size.
+CREATE INDEX idx_generations_user_history ON generations(user_id, created_at DESC, id DESC) WHERE started_at IS NOT NULL;
+CREATE INDEX idx_generations_chat_id ON generations(chat_id);
+
+-- A unique index on generations would have to include created_at, so client request ids are kept unique per user
+-- here instead. The row is written in the transaction that inserts its generation and goes away with it.
+CREATE TABLE generation_requests (
+    user_id UUID NOT NULL,
+    request_id VARCHAR(255) NOT NULL,
+    generation_id UUID NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT uq_generation_requests_user_request UNIQUE (user_id, request_id),
+    CONSTRAINT generation_requests_generation_fkey FOREIGN KEY (generation_id, created_at)
+        REFERENCES generations(id, created_at) ON DELETE CASCADE
+);
+CREATE INDEX idx_generation_requests_generation ON generation_requests(generation_id, created_at);
+CREATE INDEX idx_generation_requests_created_at ON generation_requests(created_at);
+
+INSERT INTO generation_requests (user_id, request_id, generation_id, created_at)
+SELECT user_id, request_id, id, created_at
+FROM generations
+WHERE request_id IS NOT NULL;
@@ -0,0 +1,14 @@
+-- Search is always scoped to one user, but the full-text index covered everyone's messages, so a common term read
+-- every user's matches before the chat join filtered them. Messages now carry their chat's owner (a chat never
+-- changes owner) and both search indexes lead with it.
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+DROP INDEX idx_messages_content_tsv;
+
+ALTER TABLE messages ADD COLUMN user_id UUID;
+UPDATE messages m SET user_id = c.user_id FROM chats c WHERE c.id = m.chat_id;
+ALTER TABLE messages ALTER COLUMN user_id SET NOT NULL;
+
+-- Rare terms: the user's postings for the term. Common terms: walk the user's newest messages until enough match.
+CREATE INDEX idx_messages_user_content_tsv ON messages USING GIN (user_id, content_tsv);
+CREATE INDEX idx_messages_user_created_at ON messages(user_id, created_at DESC);
@@ -0,0 +1,9 @@
+-- Single-row cursor for MessageContentMigrator: rows with id <= last_id have been packed. Shared by every API node,
+-- so the scan runs once across the cluster and resumes after restarts.
+CREATE TABLE message_codec_migration_state (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    last_id UUID NOT NULL DEFAULT '00000000-0000-0000-0000-000000000000',
+    finished_at TIMESTAMPTZ
+);
+
+INSERT INTO message_codec_migration_state (id) VALUES (1);
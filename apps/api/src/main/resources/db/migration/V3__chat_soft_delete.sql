@@ -0,0 +1,3 @@
+ALTER TABLE chats ADD COLUMN deleted_at TIMESTAMPTZ;
+
+CREATE INDEX idx_chats_deleted_at ON chats(deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,5 @@
+ALTER TABLE messages ALTER COLUMN content_tsv DROP EXPRESSION;
+ALTER TABLE messages ALTER COLUMN content DROP NOT NULL;
+ALTER TABLE messages ADD COLUMN content_packed BYTEA;
+ALTER TABLE messages
+    ADD CONSTRAINT chk_messages_content_present CHECK (content IS NOT NULL OR content_packed IS NOT NULL) NOT VALID;
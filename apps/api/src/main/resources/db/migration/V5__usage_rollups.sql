@@ -0,0 +1,30 @@
+CREATE TABLE usage_hourly (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    hour TIMESTAMPTZ NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    input_tokens BIGINT NOT NULL,
+    output_tokens BIGINT NOT NULL,
+    generations BIGINT NOT NULL,
+    PRIMARY KEY (user_id, hour, model)
+);
+
+CREATE TABLE usage_daily (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    input_tokens BIGINT NOT NULL,
+    output_tokens BIGINT NOT NULL,
+    generations BIGINT NOT NULL,
+    PRIMARY KEY (user_id, day, model)
+);
+
+-- Single-row watermark: every UTC hour before hourly_through (and day before daily_through) is rolled up.
+CREATE TABLE usage_rollup_state (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    hourly_through TIMESTAMPTZ,
+    daily_through DATE
+);
+
+INSERT INTO usage_rollup_state (id) VALUES (1);
+
+CREATE INDEX idx_usage_events_created_at ON usage_events(created_at);
@@ -0,0 +1,27 @@
+-- Messages form a tree per chat: a branch (edit, regenerate) is one new row pointing at a shared ancestor.
+-- No FK on parent_id: chat_id already cascades, and ChatPurger deletes a chat's rows in arbitrary batches.
+ALTER TABLE messages ADD COLUMN parent_id UUID;
+ALTER TABLE chats ADD COLUMN active_leaf_id UUID;
+ALTER TABLE generations ADD COLUMN parent_message_id UUID;
+
+-- Existing chats are linear: chain every message to the one before it and point the chat at the newest.
+UPDATE messages m
+SET parent_id = ordered.prev_id
+FROM (
+    SELECT id, lag(id) OVER (PARTITION BY chat_id ORDER BY created_at, id) AS prev_id
+    FROM messages
+) ordered
+WHERE m.id = ordered.id
+  AND ordered.prev_id IS NOT NULL;
+
+UPDATE chats c
+SET active_leaf_id = latest.id
+FROM (
+    SELECT DISTINCT ON (chat_id) chat_id, id
+    FROM messages
+    ORDER BY chat_id, created_at DESC, id DESC
+) latest
+WHERE c.id = latest.chat_id;
+
+CREATE INDEX idx_messages_parent_id ON messages(parent_id, created_at) WHERE parent_id IS NOT NULL;
+CREATE INDEX idx_messages_chat_roots ON messages(chat_id, created_at) WHERE parent_id IS NULL;
@@ -0,0 +1,12 @@
+-- A checkpoint summarizes the path from the root through message_id. Messages are immutable and edits branch,
+-- so a checkpoint applies exactly to the paths that pass through its message.
+CREATE TABLE chat_summaries (
+    message_id UUID PRIMARY KEY,
+    chat_id UUID NOT NULL REFERENCES chats(id) ON DELETE CASCADE,
+    summary TEXT NOT NULL,
+    covered_messages INT NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_chat_summaries_chat_id ON chat_summaries(chat_id);
@@ -0,0 +1,8 @@
+-- token_count is computed once per message under token_encoding; token_prefix is the running sum along the
+-- parent chain, so the active leaf's prefix is the size of the whole conversation.
+ALTER TABLE messages ADD COLUMN token_count INT;
+ALTER TABLE messages ADD COLUMN token_encoding VARCHAR(32);
+ALTER TABLE messages ADD COLUMN token_prefix BIGINT;
+
+-- Chats whose prefix sums still need (re)computing; shrinks to nothing once the backfill catches up.
+CREATE INDEX idx_messages_token_prefix_pending ON messages(chat_id) WHERE token_prefix IS NULL;
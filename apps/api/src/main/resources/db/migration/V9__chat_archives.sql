@@ -0,0 +1,14 @@
+-- Idle chats move their messages into compressed, append-only segment files; chat_archives locates each chat's
+-- block. The chat row itself stays, so listing, titles and ownership checks are unchanged.
+ALTER TABLE chats ADD COLUMN archived_at TIMESTAMPTZ;
+
+CREATE TABLE chat_archives (
+    chat_id UUID PRIMARY KEY REFERENCES chats(id) ON DELETE CASCADE,
+    segment_key VARCHAR(255) NOT NULL,
+    segment_offset BIGINT NOT NULL,
+    segment_length INT NOT NULL,
+    message_count INT NOT NULL,
+    archived_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_chats_archive_candidates ON chats(updated_at) WHERE archived_at IS NULL AND deleted_at IS NULL;
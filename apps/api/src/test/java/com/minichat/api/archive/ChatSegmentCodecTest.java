@@ -0,0 +1,116 @@
+package com.minichat.api.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class ChatSegmentCodecTest {
+
+    private final ChatSegmentCodec codec = new ChatSegmentCodec();
+
+    @Test
+    void roundTripsMessages() {
+        List<ArchivedMessage> messages = messages();
+
+        assertThat(codec.decode(codec.encode(messages))).isEqualTo(messages);
+    }
+
+    @Test
+    void roundTripsEmptyChat() {
+        assertThat(codec.decode(codec.encode(List.of()))).isEmpty();
+    }
+
+    @Test
+    void writesMagicAndRawLengthInHeader() {
+        ByteBuffer header = ByteBuffer.wrap(codec.encode(messages()));
+
+        assertThat(header.getInt()).isEqualTo(0x4d434131);
+        assertThat(header.getInt()).isPositive();
+    }
+
+    @Test
+    void rejectsWrongMagic() {
+        byte[] block = codec.encode(messages());
+        block[0] ^= 0x01;
+
+        assertThatThrownBy(() -> codec.decode(block))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Not an archive block");
+    }
+
+    @Test
+    void rejectsLongerRawLength() {
+        byte[] block = codec.encode(messages());
+        ByteBuffer header = ByteBuffer.wrap(block);
+        header.putInt(4, header.getInt(4) + 1);
+
+        assertThatThrownBy(() -> codec.decode(block)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsShorterRawLength() {
+        byte[] block = codec.encode(messages());
+        ByteBuffer header = ByteBuffer.wrap(block);
+        header.putInt(4, header.getInt(4) - 1);
+
+        assertThatThrownBy(() -> codec.decode(block)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsNegativeRawLength() {
+        byte[] block = codec.encode(messages());
+        ByteBuffer.wrap(block).putInt(4, -1);
+
+        assertThatThrownBy(() -> codec.decode(block))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageStartingWith("Invalid archive block length");
+    }
+
+    @Test
+    void rejectsChecksumMismatch() {
+        byte[] block = codec.encode(messages());
+        ByteBuffer header = ByteBuffer.wrap(block);
+        header.putInt(8, header.getInt(8) ^ 1);
+
+        assertThatThrownBy(() -> codec.decode(block))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Archive block checksum mismatch");
+    }
+
+    @Test
+    void rejectsTruncatedHeader() {
+        byte[] block = Arrays.copyOf(codec.encode(messages()), 7);
+
+        assertThatThrownBy(() -> codec.decode(block))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Truncated archive block");
+    }
+
+    @Test
+    void rejectsTruncatedPayload() {
+        byte[] encoded = codec.encode(messages());
+
+        for (int length = 12; length < encoded.length; length++) {
+            byte[] block = Arrays.copyOf(encoded, length);
+            assertThatThrownBy(() -> codec.decode(block))
+                .as("block cut to %d of %d bytes", length, encoded.length)
+                .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    static List<ArchivedMessage> messages() {
+        UUID root = UUID.fromString("0190f3a2-0000-7000-8000-000000000001");
+        return List.of(
+            new ArchivedMessage(root, null, "user", "Hello, how do partitions work?", 8, "cl100k_base", 8L,
+                Instant.parse("2024-07-01T10:15:30.123456789Z")),
+            new ArchivedMessage(UUID.fromString("0190f3a2-0000-7000-8000-000000000002"), root, "assistant",
+                "Rows are routed by key — ünïcödé included. ".repeat(40), null, null, null,
+                Instant.parse("2024-07-01T10:15:31Z")));
+    }
+}
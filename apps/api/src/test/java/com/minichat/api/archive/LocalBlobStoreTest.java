@@ -0,0 +1,82 @@
+package com.minichat.api.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalBlobStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBlocksBackByRange() throws IOException {
+        ChatSegmentCodec codec = new ChatSegmentCodec();
+        List<ArchivedMessage> first = ChatSegmentCodecTest.messages();
+        List<ArchivedMessage> second = first.subList(0, 1);
+        byte[] firstBlock = codec.encode(first);
+        byte[] secondBlock = codec.encode(second);
+
+        Path segment = dir.resolve("segment.bin");
+        Files.write(segment, concat(firstBlock, secondBlock));
+        LocalBlobStore store = new LocalBlobStore(dir.resolve("blobs"));
+        store.put("segments/2024/07/0001.seg", segment);
+
+        assertThat(codec.decode(store.read("segments/2024/07/0001.seg", 0, firstBlock.length))).isEqualTo(first);
+        assertThat(codec.decode(store.read("segments/2024/07/0001.seg", firstBlock.length, secondBlock.length)))
+            .isEqualTo(second);
+    }
+
+    @Test
+    void rejectsReadPastEnd() throws IOException {
+        LocalBlobStore store = storeWith("a.seg", new byte[] {1, 2, 3, 4});
+
+        assertThat(store.read("a.seg", 1, 3)).containsExactly(2, 3, 4);
+        assertThatThrownBy(() -> store.read("a.seg", 2, 3)).isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void replacesExistingBlobWithoutLeavingStagingFiles() throws IOException {
+        LocalBlobStore store = storeWith("a.seg", new byte[] {1, 2});
+        Path next = dir.resolve("next.bin");
+        Files.write(next, new byte[] {7, 8, 9});
+
+        store.put("a.seg", next);
+
+        assertThat(store.read("a.seg", 0, 3)).containsExactly(7, 8, 9);
+        try (Stream<Path> files = Files.list(dir.resolve("blobs"))) {
+            assertThat(files).extracting(path -> path.getFileName().toString()).containsExactly("a.seg");
+        }
+    }
+
+    @Test
+    void rejectsKeysOutsideRoot() {
+        LocalBlobStore store = new LocalBlobStore(dir.resolve("blobs"));
+
+        assertThatThrownBy(() -> store.read("../escape.seg", 0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.put("../escape.seg", dir.resolve("missing"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private LocalBlobStore storeWith(String key, byte[] content) throws IOException {
+        Path file = Files.createTempFile(dir, "blob", ".bin");
+        Files.write(file, content);
+        LocalBlobStore store = new LocalBlobStore(dir.resolve("blobs"));
+        store.put(key, file);
+        return store;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
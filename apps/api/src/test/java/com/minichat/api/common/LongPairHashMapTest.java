@@ -0,0 +1,213 @@
+package com.minichat.api.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LongPairHashMapTest {
+
+    // LongPairHashMap(1) has the minimum of 16 slots and resizes at 12 entries.
+    private static final int MASK = 15;
+
+    @Test
+    void putsOverwritesAndLooksUp() {
+        LongPairHashMap map = new LongPairHashMap(4);
+
+        map.put(1, 2, 10, 20);
+        map.put(3, 4, 30, 40);
+        map.put(1, 2, 11, 21);
+
+        assertThat(map.size()).isEqualTo(2);
+        assertValue(map, 1, 2, 11, 21);
+        assertValue(map, 3, 4, 30, 40);
+        assertThat(map.indexOf(5, 6)).isEqualTo(-1);
+    }
+
+    @Test
+    void rejectsAllZeroKey() {
+        LongPairHashMap map = new LongPairHashMap(4);
+
+        assertThatThrownBy(() -> map.put(0, 0, 1, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.indexOf(0, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.indexOf(0, 1)).isEqualTo(-1);
+    }
+
+    @Test
+    void probeChainWrapsAroundTheTableEnd() {
+        LongPairHashMap map = new LongPairHashMap(1);
+        List<Long> last = keysWithSlot(MASK, 4);
+
+        for (long key : last) {
+            map.put(1, key, key, -key);
+        }
+
+        // The chain starts in the last slot and continues at the front of the table.
+        assertThat(map.indexOf(1, last.get(0))).isEqualTo(MASK);
+        assertThat(map.indexOf(1, last.get(1))).isZero();
+        assertThat(map.indexOf(1, last.get(3))).isEqualTo(2);
+        for (long key : last) {
+            assertValue(map, 1, key, key, -key);
+        }
+    }
+
+    @Test
+    void removeShiftsWrappedEntriesBack() {
+        LongPairHashMap map = new LongPairHashMap(1);
+        List<Long> last = keysWithSlot(MASK, 3);
+        List<Long> first = keysWithSlot(0, 2);
+        // Slots: 15 = last0, 0 = last1, 1 = last2, 2 = first0, 3 = first1.
+        for (long key : last) {
+            map.put(1, key, key, 0);
+        }
+        for (long key : first) {
+            map.put(1, key, key, 0);
+        }
+
+        assertThat(map.remove(1, last.get(0))).isTrue();
+
+        assertThat(map.size()).isEqualTo(4);
+        assertThat(map.indexOf(1, last.get(0))).isEqualTo(-1);
+        assertThat(map.indexOf(1, last.get(1))).isEqualTo(MASK);
+        assertThat(map.indexOf(1, last.get(2))).isZero();
+        assertThat(map.indexOf(1, first.get(0))).isEqualTo(1);
+        assertThat(map.indexOf(1, first.get(1))).isEqualTo(2);
+        for (long key : last.subList(1, 3)) {
+            assertValue(map, 1, key, key, 0);
+        }
+        for (long key : first) {
+            assertValue(map, 1, key, key, 0);
+        }
+    }
+
+    @Test
+    void removeKeepsEntriesAtTheirIdealSlot() {
+        LongPairHashMap map = new LongPairHashMap(1);
+        List<Long> last = keysWithSlot(MASK, 2);
+        long atOne = keysWithSlot(1, 1).get(0);
+        // Slots: 15 = last0, 0 = last1, 1 = atOne; atOne must not move into slot 0.
+        map.put(1, last.get(0), 1, 1);
+        map.put(1, last.get(1), 2, 2);
+        map.put(1, atOne, 3, 3);
+
+        assertThat(map.remove(1, last.get(1))).isTrue();
+
+        assertThat(map.indexOf(1, atOne)).isEqualTo(1);
+        assertValue(map, 1, last.get(0), 1, 1);
+        assertThat(map.remove(1, last.get(1))).isFalse();
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void removedKeyCanBeAddedAgain() {
+        LongPairHashMap map = new LongPairHashMap(1);
+        List<Long> keys = keysWithSlot(7, 3);
+        for (long key : keys) {
+            map.put(1, key, key, key);
+        }
+
+        map.remove(1, keys.get(1));
+        map.put(1, keys.get(1), 42, 43);
+
+        assertThat(map.size()).isEqualTo(3);
+        assertValue(map, 1, keys.get(0), keys.get(0), keys.get(0));
+        assertValue(map, 1, keys.get(1), 42, 43);
+        assertValue(map, 1, keys.get(2), keys.get(2), keys.get(2));
+    }
+
+    @Test
+    void resizeKeepsEveryEntry() {
+        LongPairHashMap map = new LongPairHashMap(1);
+        int count = 10_000;
+        for (int i = 1; i <= count; i++) {
+            map.put(i, -i, i * 3L, i * 5L);
+        }
+
+        assertThat(map.size()).isEqualTo(count);
+        for (int i = 1; i <= count; i++) {
+            assertValue(map, i, -i, i * 3L, i * 5L);
+        }
+        assertThat(map.indexOf(count + 1, -(count + 1))).isEqualTo(-1);
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongPairHashMap map = new LongPairHashMap(1);
+        for (int i = 1; i <= 20; i++) {
+            map.put(i, i, i, i);
+        }
+
+        map.clear();
+
+        assertThat(map.size()).isZero();
+        for (int i = 1; i <= 20; i++) {
+            assertThat(map.indexOf(i, i)).isEqualTo(-1);
+        }
+        map.put(5, 5, 6, 6);
+        assertValue(map, 5, 5, 6, 6);
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(37);
+        LongPairHashMap map = new LongPairHashMap(1);
+        Map<List<Long>, long[]> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            // A small key space keeps chains long and removals frequent.
+            long hi = random.nextInt(4) + 1;
+            long lo = random.nextInt(512);
+            List<Long> key = List.of(hi, lo);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    long value = random.nextLong();
+                    map.put(hi, lo, value, ~value);
+                    expected.put(key, new long[] {value, ~value});
+                }
+                case 1 -> assertThat(map.remove(hi, lo)).isEqualTo(expected.remove(key) != null);
+                default -> {
+                    long[] value = expected.get(key);
+                    if (value == null) {
+                        assertThat(map.indexOf(hi, lo)).isEqualTo(-1);
+                    } else {
+                        assertValue(map, hi, lo, value[0], value[1]);
+                    }
+                }
+            }
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+        expected.forEach((key, value) -> assertValue(map, key.get(0), key.get(1), value[0], value[1]));
+    }
+
+    private static void assertValue(LongPairHashMap map, long keyHi, long keyLo, long valueHi, long valueLo) {
+        int index = map.indexOf(keyHi, keyLo);
+        assertThat(index).as("index of (%d, %d)", keyHi, keyLo).isNotNegative();
+        assertThat(map.valueHi(index)).isEqualTo(valueHi);
+        assertThat(map.valueLo(index)).isEqualTo(valueLo);
+    }
+
+    // Low key halves whose ideal slot in a 16-slot table, with a high half of 1, is the given slot.
+    private static List<Long> keysWithSlot(int slot, int count) {
+        List<Long> keys = new ArrayList<>();
+        for (long lo = 1; keys.size() < count; lo++) {
+            if (slot(1, lo) == slot) {
+                keys.add(lo);
+            }
+        }
+        return keys;
+    }
+
+    // Mirrors LongPairHashMap's slot hash.
+    private static int slot(long keyHi, long keyLo) {
+        long h = keyHi * 0x9E3779B97F4A7C15L ^ keyLo;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & MASK;
+    }
+}